@@ -21,6 +21,30 @@ BEGIN
   END IF;
 END $$;
 
+-- Indexes for keyset pagination (GET /products?cursor=...&sort=name|price)
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON products (name, id);
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products (price, id);
+
+-- Change counter polled by CatalogChangeWatcher. Every statement that writes products bumps it inside the
+-- writing transaction, so the bump becomes visible exactly when the write commits, whatever updated_at it
+-- carries. Writers to products queue on this one row until they commit; catalog writes are rare.
+CREATE TABLE IF NOT EXISTS catalog_version (
+  id INT PRIMARY KEY,
+  version BIGINT NOT NULL
+);
+INSERT INTO catalog_version (id, version) VALUES (1, 0) ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_catalog_version() RETURNS trigger AS $$
+BEGIN
+  UPDATE catalog_version SET version = version + 1 WHERE id = 1;
+  RETURN NULL;
+END $$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS products_bump_catalog_version ON products;
+CREATE TRIGGER products_bump_catalog_version
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON products
+  FOR EACH STATEMENT EXECUTE FUNCTION bump_catalog_version();
+
 -- Upsert products by SKU, including S3 image URLs
 INSERT INTO products (sku, name, description, price, image_url, created_at, updated_at) VALUES
   ('BLEND-001', 'NovaKitchen Pro Blender 1200W',
@@ -0,0 +1,105 @@
+package com.novamart.catalog.web;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.novamart.catalog.domain.Product;
+import com.novamart.catalog.web.dto.ProductDetailDto;
+import com.novamart.catalog.web.dto.ProductSummaryDto;
+
+/**
+ * The CPU side of a catalog browse request once the rows are loaded: page-size clamping, entity to DTO
+ * mapping and Jackson rendering of the {@code Page<ProductSummaryDto>} body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProductReadBenchmark {
+
+    @Param({"20", "50"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private Pageable requested;
+    private Page<ProductSummaryDto> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+        products = new ArrayList<>(pageSize);
+        OffsetDateTime updatedAt = OffsetDateTime.of(2024, 5, 1, 12, 30, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < pageSize; i++) {
+            Product product = new Product();
+            product.setId(1000L + i);
+            product.setSku("sku-" + (1000 + i));
+            product.setName("Product number " + i);
+            product.setDescription("A reasonably long description for product " + i + " used on the detail page.");
+            product.setImageUrl("https://cdn.example.com/products/" + (1000 + i) + ".jpg");
+            product.setPrice(BigDecimal.valueOf(499 + 1_337L * i, 2));
+            product.setCreatedAt(updatedAt);
+            product.setUpdatedAt(updatedAt);
+            products.add(product);
+        }
+        // Over the limit, so clamping has to build a new PageRequest.
+        requested = PageRequest.of(3, 200);
+        page = new PageImpl<>(products.stream().map(ProductSummaryDto::from).toList(), PageRequest.of(3, pageSize), 5_000);
+    }
+
+    @Benchmark
+    public Pageable clampPageSize() {
+        return ProductController.clampPageSize(requested);
+    }
+
+    @Benchmark
+    public void mapSummaries(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(ProductSummaryDto.from(product));
+        }
+    }
+
+    @Benchmark
+    public void mapDetails(Blackhole blackhole) {
+        for (Product product : products) {
+            blackhole.consume(ProductDetailDto.from(product));
+        }
+    }
+
+    @Benchmark
+    public byte[] renderPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -2,11 +2,13 @@ package com.novamart.catalog;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Spring Boot application entrypoint for the NovaMart Catalog Service.
  */
 @SpringBootApplication
+@EnableScheduling
 public class CatalogServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,109 @@
+package com.novamart.catalog.cache;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Detects catalog changes by polling the products table and publishes a {@link CatalogChangedEvent} when it
+ * has moved. Every replica polls on its own, so replicas converge within one poll interval without any
+ * coordination.
+ *
+ * The poll reads {@code catalog_version.version}, a counter that a statement trigger on products bumps in
+ * the writing transaction (see {@code db/seed_catalog.sql}), next to {@code max(updated_at)} and
+ * {@code count(*)}. The counter also catches a write that commits after a newer one with an older
+ * {@code updated_at}, which leaves max and count unchanged. Without the {@code catalog_version} table the
+ * watcher falls back to max and count, and such a write stays cached until the cache TTL; writes that
+ * bypass JPA must then bump {@code updated_at} (the seed script's upsert does).
+ */
+@Component
+public class CatalogChangeWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogChangeWatcher.class);
+
+    private static final String VERSIONED_QUERY =
+        "select max(updated_at), count(*), (select version from catalog_version where id = 1) from products";
+    private static final String UNVERSIONED_QUERY =
+        "select max(updated_at), count(*), null from products";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private boolean versioned = true;
+    private TableVersion lastSeen;
+
+    public CatalogChangeWatcher(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Scheduled(
+        fixedDelayString = "${novamart.catalog.change-poll-interval-ms:2000}",
+        initialDelayString = "${novamart.catalog.change-poll-interval-ms:2000}"
+    )
+    public void poll() {
+        TableVersion current;
+        try {
+            current = read();
+        } catch (Exception e) {
+            log.warn("Catalog change poll failed: {}", e.getMessage());
+            return;
+        }
+
+        if (lastSeen != null && !sameVersion(lastSeen, current)) {
+            CatalogChangedEvent event = current.event();
+            log.info("Catalog changed (products={}, lastUpdatedAt={})", event.productCount(), event.lastUpdatedAt());
+            eventPublisher.publishEvent(event);
+        }
+        lastSeen = current;
+    }
+
+    private TableVersion read() {
+        if (versioned) {
+            try {
+                return jdbcTemplate.queryForObject(VERSIONED_QUERY, TableVersion::map);
+            } catch (BadSqlGrammarException e) {
+                versioned = false;
+                log.warn(
+                    "No catalog_version counter ({}); watching max(updated_at) and count(*) only. "
+                        + "Run db/seed_catalog.sql to add it.",
+                    e.getMostSpecificCause().getMessage()
+                );
+            }
+        }
+        return jdbcTemplate.queryForObject(UNVERSIONED_QUERY, TableVersion::map);
+    }
+
+    private static boolean sameVersion(TableVersion a, TableVersion b) {
+        return a.productCount() == b.productCount()
+            && Objects.equals(a.version(), b.version())
+            && Objects.equals(
+                a.lastUpdatedAt() == null ? null : a.lastUpdatedAt().toInstant(),
+                b.lastUpdatedAt() == null ? null : b.lastUpdatedAt().toInstant()
+            );
+    }
+
+    /**
+     * What one poll saw; {@code version} is null without the catalog_version table.
+     */
+    private record TableVersion(OffsetDateTime lastUpdatedAt, long productCount, Long version) {
+
+        static TableVersion map(ResultSet rs, int rowNum) throws SQLException {
+            long version = rs.getLong(3);
+            Long counter = rs.wasNull() ? null : version;
+            return new TableVersion(rs.getObject(1, OffsetDateTime.class), rs.getLong(2), counter);
+        }
+
+        CatalogChangedEvent event() {
+            return new CatalogChangedEvent(lastUpdatedAt, productCount);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.novamart.catalog.cache;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Published when the products table has changed since the previous check.
+ *
+ * @param lastUpdatedAt latest {@code updated_at} in the table, or null when it is empty
+ * @param productCount  number of products in the table
+ */
+public record CatalogChangedEvent(OffsetDateTime lastUpdatedAt, long productCount) {
+}
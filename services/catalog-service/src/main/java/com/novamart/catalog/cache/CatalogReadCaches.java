@@ -0,0 +1,76 @@
+package com.novamart.catalog.cache;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.novamart.catalog.web.dto.ProductDetailDto;
+import com.novamart.catalog.web.dto.ProductPriceDto;
+import com.novamart.catalog.web.dto.ProductSlice;
+import com.novamart.catalog.web.dto.ProductSummaryDto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-process caches for catalog reads, cleared whenever {@link CatalogChangeWatcher} sees the products
+ * table change. The TTL only bounds staleness if a change goes unnoticed. Entries keep their HTTP
+ * validators, so a conditional request that hits the cache never touches the database.
+ */
+@Component
+public class CatalogReadCaches {
+
+    private final ReadCache<Long, Versioned<ProductDetailDto>> details;
+    private final ReadCache<Pageable, Versioned<Page<ProductSummaryDto>>> pages;
+    private final ReadCache<String, Versioned<ProductSlice>> slices;
+    private final ReadCache<String, Versioned<List<ProductPriceDto>>> prices;
+
+    public CatalogReadCaches(
+        @Value("${novamart.catalog.cache.enabled:true}") boolean enabled,
+        @Value("${novamart.catalog.cache.ttl-ms:60000}") long ttlMs,
+        @Value("${novamart.catalog.cache.max-details:10000}") int maxDetails,
+        @Value("${novamart.catalog.cache.max-pages:1000}") int maxPages,
+        MeterRegistry meterRegistry
+    ) {
+        this.details = new ReadCache<>("product-details", enabled, maxDetails, ttlMs, meterRegistry);
+        this.pages = new ReadCache<>("product-pages", enabled, maxPages, ttlMs, meterRegistry);
+        this.slices = new ReadCache<>("product-slices", enabled, maxPages, ttlMs, meterRegistry);
+        this.prices = new ReadCache<>("product-prices", enabled, 1, ttlMs, meterRegistry);
+    }
+
+    public ReadCache<Long, Versioned<ProductDetailDto>> details() {
+        return details;
+    }
+
+    /**
+     * Offset-mode product pages, keyed by the effective pageable (page, size and sort).
+     */
+    public ReadCache<Pageable, Versioned<Page<ProductSummaryDto>>> pages() {
+        return pages;
+    }
+
+    /**
+     * Keyset-mode product pages, keyed by cursor, sort and size.
+     */
+    public ReadCache<String, Versioned<ProductSlice>> slices() {
+        return slices;
+    }
+
+    /**
+     * The full price list, under a single key.
+     */
+    public ReadCache<String, Versioned<List<ProductPriceDto>>> prices() {
+        return prices;
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        details.invalidateAll();
+        pages.invalidateAll();
+        slices.invalidateAll();
+        prices.invalidateAll();
+    }
+}
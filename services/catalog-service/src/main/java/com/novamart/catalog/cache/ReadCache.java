@@ -0,0 +1,159 @@
+package com.novamart.catalog.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bounded LRU cache with a per-entry TTL, instrumented under {@code novamart.catalog.cache.*} with the
+ * cache name as a tag. Loader results that are null are returned but not cached.
+ */
+public class ReadCache<K, V> {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Map<K, Entry<V>> entries;
+    /** Bumped by {@link #invalidateAll()} so loads that started before it are not cached. */
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer loadTimer;
+
+    public ReadCache(String name, boolean enabled, int maxEntries, long ttlMs, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.hits = Counter.builder("novamart.catalog.cache.requests")
+            .description("Catalog read cache lookups by outcome")
+            .tags("cache", name, "result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("novamart.catalog.cache.requests")
+            .description("Catalog read cache lookups by outcome")
+            .tags("cache", name, "result", "miss")
+            .register(meterRegistry);
+        this.loadTimer = Timer.builder("novamart.catalog.cache.load")
+            .description("Time spent loading catalog cache misses from the database")
+            .tag("cache", name)
+            .register(meterRegistry);
+        Gauge.builder("novamart.catalog.cache.size", this, ReadCache::size)
+            .description("Entries currently held in the catalog read cache")
+            .tag("cache", name)
+            .register(meterRegistry);
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry != null) {
+            hits.increment();
+            return entry.value();
+        }
+
+        misses.increment();
+        long loadGeneration;
+        synchronized (entries) {
+            loadGeneration = generation;
+        }
+        V value = loadTimer.record(loader);
+        if (value != null) {
+            Entry<V> loaded = new Entry<>(value, System.nanoTime() + ttlNanos);
+            synchronized (entries) {
+                if (generation == loadGeneration) {
+                    entries.put(key, loaded);
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Bulk variant of {@link #get}: cached keys are answered from the cache and the rest are handed to the
+     * loader in one call. Keys the loader doesn't return are absent from the result and not cached.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+        if (!enabled) {
+            return loader.apply(new LinkedHashSet<>(keys));
+        }
+
+        Map<K, V> found = new HashMap<>();
+        Set<K> missing = new LinkedHashSet<>();
+        long loadGeneration;
+        synchronized (entries) {
+            long now = System.nanoTime();
+            for (K key : keys) {
+                Entry<V> entry = entries.get(key);
+                if (entry != null && entry.isExpired(now)) {
+                    entries.remove(key);
+                    entry = null;
+                }
+                if (entry != null) {
+                    found.put(key, entry.value());
+                } else {
+                    missing.add(key);
+                }
+            }
+            loadGeneration = generation;
+        }
+        hits.increment(found.size());
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        misses.increment(missing.size());
+        Map<K, V> loaded = loadTimer.record(() -> loader.apply(missing));
+        long expiresAt = System.nanoTime() + ttlNanos;
+        synchronized (entries) {
+            if (generation == loadGeneration) {
+                loaded.forEach((key, value) -> entries.put(key, new Entry<>(value, expiresAt)));
+            }
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            generation++;
+        }
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.novamart.catalog.cache;
+
+/**
+ * A response body together with the HTTP validators computed from the products it was built from, so
+ * conditional requests can be answered without rendering the body again.
+ *
+ * @param body               the DTO to render
+ * @param etag               strong entity tag, including quotes
+ * @param lastModifiedMillis latest {@code updatedAt} among the products, or -1 when unknown
+ */
+public record Versioned<T>(T body, String etag, long lastModifiedMillis) {
+}
@@ -1,7 +1,16 @@
 package com.novamart.catalog.repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+
 import com.novamart.catalog.domain.Product;
+import com.novamart.catalog.web.dto.ProductPriceDto;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * Spring Data JPA repository for Product entities.
@@ -9,5 +18,21 @@ import org.springframework.data.jpa.repository.JpaRepository;
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     boolean existsBySku(String sku);
-}
 
+    /**
+     * Keyset-scrolls products: seeks past {@code position} and reads {@code limit} rows (plus one to detect
+     * a next page) without an OFFSET or count query.
+     */
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Products touched at or after {@code updatedAt}; used to apply catalog changes incrementally.
+     */
+    List<Product> findByUpdatedAtGreaterThanEqual(OffsetDateTime updatedAt);
+
+    /**
+     * The full price list, read as a projection so no entities are materialized.
+     */
+    @Query("select new com.novamart.catalog.web.dto.ProductPriceDto(p.id, p.sku, p.price) from Product p order by p.id")
+    List<ProductPriceDto> findAllPrices();
+}
@@ -0,0 +1,314 @@
+package com.novamart.catalog.search;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.novamart.catalog.cache.CatalogChangedEvent;
+import com.novamart.catalog.domain.Product;
+import com.novamart.catalog.repository.ProductRepository;
+import com.novamart.catalog.web.dto.ProductSummaryDto;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * In-memory inverted index over product name, description and sku.
+ *
+ * Every query term must match (AND). The last term also matches as a prefix so the index can back a
+ * typeahead box; prefix matches score lower than exact ones. A term's score is its field weight (sku over
+ * name over description) times an idf factor, so rare words count for more than words every product has.
+ * Ties go to the shorter name, then the lower id.
+ *
+ * The index is built at startup. On {@link CatalogChangedEvent} only products updated since the last
+ * build are re-read and re-indexed; if the product count no longer matches (something was deleted) the
+ * index is rebuilt from scratch. The re-read reaches {@link #LATE_COMMIT_WINDOW} back past the newest
+ * {@code updated_at} seen, so a write whose transaction commits after a newer one is still picked up.
+ * Searches never touch the database.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float SKU_WEIGHT = 4f;
+    private static final float NAME_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.6f;
+    /** Caps how many index terms a one- or two-letter prefix expands to. */
+    private static final int MAX_PREFIX_TERMS = 512;
+    /** How long a product write may take from setting {@code updated_at} to committing and still be re-indexed. */
+    static final Duration LATE_COMMIT_WINDOW = Duration.ofMinutes(5);
+
+    private static final Comparator<Scored> RANKING = Comparator
+        .comparingDouble(Scored::score).reversed()
+        .thenComparingInt(scored -> scored.document().nameLength())
+        .thenComparingLong(scored -> scored.document().summary().id());
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer searchTimer;
+
+    private NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+    private Map<Long, Document> documents = new HashMap<>();
+    private OffsetDateTime watermark;
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.searchTimer = Timer.builder("novamart.catalog.search")
+            .description("Time to answer a product search from the in-memory index")
+            .register(meterRegistry);
+        Gauge.builder("novamart.catalog.search.terms", this, ProductSearchIndex::termCount)
+            .description("Distinct terms in the product search index")
+            .register(meterRegistry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns up to {@code limit} products matching {@code query}, best match first.
+     */
+    public List<ProductSummaryDto> search(String query, int limit) {
+        List<String> terms = SearchTokenizer.tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        return searchTimer.record(() -> {
+            lock.readLock().lock();
+            try {
+                return rank(terms, limit);
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    @EventListener
+    public synchronized void onCatalogChanged(CatalogChangedEvent event) {
+        if (!ready) {
+            rebuild();
+            return;
+        }
+        try {
+            OffsetDateTime since;
+            lock.readLock().lock();
+            try {
+                since = watermark;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            // Reach back past the watermark: a product committed after the last read with an updated_at at or
+            // before the watermark would otherwise be missed. Re-indexing the few recent products is harmless.
+            List<Product> changed = since == null
+                ? productRepository.findAll()
+                : productRepository.findByUpdatedAtGreaterThanEqual(since.minus(LATE_COMMIT_WINDOW));
+
+            int indexed;
+            lock.writeLock().lock();
+            try {
+                for (Product product : changed) {
+                    remove(postings, documents, product.getId());
+                    add(postings, documents, product);
+                    watermark = later(watermark, product.getUpdatedAt());
+                }
+                indexed = documents.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            if (indexed != event.productCount()) {
+                rebuild();
+            } else {
+                log.debug("Search index updated with {} changed products", changed.size());
+            }
+        } catch (Exception e) {
+            log.warn("Incremental search index update failed, rebuilding: {}", e.getMessage());
+            rebuild();
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${novamart.catalog.change-poll-interval-ms:2000}",
+        initialDelayString = "${novamart.catalog.change-poll-interval-ms:2000}"
+    )
+    public void retryIfNotReady() {
+        if (!ready) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Builds a new index off to the side and swaps it in, so searches keep running during the build.
+     */
+    synchronized void rebuild() {
+        try {
+            List<Product> products = productRepository.findAll();
+            NavigableMap<String, Map<Long, Float>> newPostings = new TreeMap<>();
+            Map<Long, Document> newDocuments = new HashMap<>(products.size() * 2);
+            OffsetDateTime newWatermark = null;
+            for (Product product : products) {
+                add(newPostings, newDocuments, product);
+                newWatermark = later(newWatermark, product.getUpdatedAt());
+            }
+
+            lock.writeLock().lock();
+            try {
+                postings = newPostings;
+                documents = newDocuments;
+                watermark = newWatermark;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("Search index built: {} products, {} terms", newDocuments.size(), newPostings.size());
+        } catch (Exception e) {
+            log.warn("Search index build failed: {}", e.getMessage());
+        }
+    }
+
+    private List<ProductSummaryDto> rank(List<String> terms, int limit) {
+        Map<Long, Float> scores = null;
+        for (int i = 0; i < terms.size(); i++) {
+            Map<Long, Float> termScores = scoreTerm(terms.get(i), i == terms.size() - 1);
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                Map<Long, Float> both = new HashMap<>();
+                for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+                    Float termScore = termScores.get(entry.getKey());
+                    if (termScore != null) {
+                        both.put(entry.getKey(), entry.getValue() + termScore);
+                    }
+                }
+                scores = both;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Scored> matches = new ArrayList<>(scores.size());
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            matches.add(new Scored(documents.get(entry.getKey()), entry.getValue()));
+        }
+        matches.sort(RANKING);
+        return matches.stream().limit(limit).map(scored -> scored.document().summary()).toList();
+    }
+
+    /**
+     * Scores every product containing {@code term} (or, for the typeahead term, a word starting with it).
+     * A product matching through several index terms keeps its best score.
+     */
+    private Map<Long, Float> scoreTerm(String term, boolean allowPrefix) {
+        Map<Long, Float> scores = new HashMap<>();
+        Map<Long, Float> exact = postings.get(term);
+        if (exact != null) {
+            accumulate(scores, exact, 1f);
+        }
+        if (allowPrefix) {
+            int expanded = 0;
+            for (Map<Long, Float> matches : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+                if (++expanded > MAX_PREFIX_TERMS) {
+                    break;
+                }
+                accumulate(scores, matches, PREFIX_FACTOR);
+            }
+        }
+        return scores;
+    }
+
+    private void accumulate(Map<Long, Float> scores, Map<Long, Float> matches, float factor) {
+        float idf = (float) Math.log(1 + (double) documents.size() / matches.size());
+        for (Map.Entry<Long, Float> match : matches.entrySet()) {
+            scores.merge(match.getKey(), match.getValue() * idf * factor, Math::max);
+        }
+    }
+
+    private static void add(NavigableMap<String, Map<Long, Float>> postings, Map<Long, Document> documents, Product product) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, product.getSku(), SKU_WEIGHT);
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new HashMap<>()).put(product.getId(), term.getValue());
+        }
+        String name = product.getName();
+        documents.put(
+            product.getId(),
+            new Document(ProductSummaryDto.from(product), terms.keySet(), name == null ? 0 : name.length())
+        );
+    }
+
+    private static void remove(NavigableMap<String, Map<Long, Float>> postings, Map<Long, Document> documents, Long productId) {
+        Document previous = documents.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms()) {
+            Map<Long, Float> matches = postings.get(term);
+            if (matches != null) {
+                matches.remove(productId);
+                if (matches.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * A term's weight is the sum of the weights of the fields it appears in, each field counted once.
+     */
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String term : new HashSet<>(SearchTokenizer.tokenize(text))) {
+            terms.merge(term, weight, Float::sum);
+        }
+    }
+
+    private static OffsetDateTime later(OffsetDateTime a, OffsetDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null || !b.isAfter(a) ? a : b;
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Document(ProductSummaryDto summary, Set<String> terms, int nameLength) { }
+
+    private record Scored(Document document, float score) { }
+}
@@ -0,0 +1,82 @@
+package com.novamart.catalog.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, memory-mapped copy of the browse responses: every product detail and every default
+ * product page, already rendered to JSON and gzip. The file is written once by
+ * {@link CatalogSnapshotService} and never modified; a change produces a new file.
+ */
+public final class CatalogSnapshot {
+
+    /**
+     * Where one response lives in the file, plus its HTTP validators.
+     */
+    record Entry(int offset, int length, int gzipOffset, int gzipLength, String etag, long lastModifiedMillis) { }
+
+    /**
+     * Everything needed to reopen a snapshot file; stored next to it as JSON.
+     */
+    record Index(long generation, int pageSize, long productCount, Map<Long, Entry> details, List<Entry> pages) { }
+
+    private final Path file;
+    private final Index index;
+    private final MappedByteBuffer buffer;
+
+    private CatalogSnapshot(Path file, Index index, MappedByteBuffer buffer) {
+        this.file = file;
+        this.index = index;
+        this.buffer = buffer;
+    }
+
+    static CatalogSnapshot open(Path file, Index index) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed.
+            return new CatalogSnapshot(file, index, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public long generation() {
+        return index.generation();
+    }
+
+    public int pageSize() {
+        return index.pageSize();
+    }
+
+    public long productCount() {
+        return index.productCount();
+    }
+
+    Path file() {
+        return file;
+    }
+
+    long sizeBytes() {
+        return buffer.capacity();
+    }
+
+    Entry detail(long id) {
+        return index.details().get(id);
+    }
+
+    Entry page(int pageNumber) {
+        return pageNumber < index.pages().size() ? index.pages().get(pageNumber) : null;
+    }
+
+    /**
+     * A read-only view of one response body; no bytes are copied.
+     */
+    ByteBuffer body(Entry entry, boolean gzip) {
+        return gzip
+            ? buffer.slice(entry.gzipOffset(), entry.gzipLength())
+            : buffer.slice(entry.offset(), entry.length());
+    }
+}
@@ -0,0 +1,161 @@
+package com.novamart.catalog.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Answers {@code GET /products} (default page size and id order) and {@code GET /products/{id}} straight from
+ * the {@link CatalogSnapshot}, before Spring MVC, JPA or Jackson get involved. Anything the snapshot can't
+ * answer (other sorts or sizes, cursors, unknown ids, no snapshot yet) passes through to the controller.
+ *
+ * On Tomcat the body is handed to the connector's sendfile support, so the bytes go from the page cache
+ * to the socket without being copied through the JVM; elsewhere the mapped bytes are written directly.
+ * The filter runs after Spring Security, so CORS handling is unchanged.
+ */
+@Component
+public class CatalogSnapshotFilter extends OncePerRequestFilter {
+
+    private static final Pattern DETAIL_PATH = Pattern.compile("/products/(\\d{1,18})");
+    private static final Set<String> PAGE_PARAMS = Set.of("page", "size");
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final CatalogSnapshotService snapshots;
+    private final Counter served;
+    private final Counter passedThrough;
+
+    public CatalogSnapshotFilter(CatalogSnapshotService snapshots, MeterRegistry meterRegistry) {
+        this.snapshots = snapshots;
+        this.served = requestCounter(meterRegistry, "served");
+        this.passedThrough = requestCounter(meterRegistry, "passthrough");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !snapshots.isEnabled()
+            || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))
+            || !request.getRequestURI().startsWith(request.getContextPath() + "/products");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws ServletException, IOException {
+        CatalogSnapshot snapshot = snapshots.current();
+        CatalogSnapshot.Entry entry = snapshot == null ? null : resolve(snapshot, request);
+        if (entry == null) {
+            passedThrough.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+
+        served.increment();
+        if (new ServletWebRequest(request, response).checkNotModified(entry.etag(), entry.lastModifiedMillis())) {
+            return;
+        }
+        write(snapshot, entry, acceptsGzip(request), request, response);
+    }
+
+    private static CatalogSnapshot.Entry resolve(CatalogSnapshot snapshot, HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        Matcher detail = DETAIL_PATH.matcher(path);
+        if (detail.matches()) {
+            return snapshot.detail(Long.parseLong(detail.group(1)));
+        }
+
+        if (!"/products".equals(path) || !PAGE_PARAMS.containsAll(request.getParameterMap().keySet())) {
+            return null;
+        }
+        Integer page = parseParam(request.getParameter("page"), 0);
+        Integer size = parseParam(request.getParameter("size"), snapshot.pageSize());
+        if (page == null || size == null || size != snapshot.pageSize()) {
+            return null;
+        }
+        return snapshot.page(page);
+    }
+
+    private static Integer parseParam(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.isEmpty() || value.length() > 9 || !value.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return Integer.parseInt(value);
+    }
+
+    private static void write(
+        CatalogSnapshot snapshot,
+        CatalogSnapshot.Entry entry,
+        boolean gzip,
+        HttpServletRequest request,
+        HttpServletResponse response
+    ) throws IOException {
+        ByteBuffer body = snapshot.body(entry, gzip);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.remaining());
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            long start = gzip ? entry.gzipOffset() : entry.offset();
+            request.setAttribute(SENDFILE_FILENAME, snapshot.file().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + body.remaining());
+            return;
+        }
+
+        WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+        while (body.hasRemaining()) {
+            channel.write(body);
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("novamart.catalog.snapshot.requests")
+            .description("Product read requests seen by the snapshot filter by outcome")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,337 @@
+package com.novamart.catalog.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novamart.catalog.cache.CatalogChangedEvent;
+import com.novamart.catalog.cache.Versioned;
+import com.novamart.catalog.domain.Product;
+import com.novamart.catalog.repository.ProductRepository;
+import com.novamart.catalog.web.ProductValidators;
+import com.novamart.catalog.web.dto.ProductDetailDto;
+import com.novamart.catalog.web.dto.ProductSummaryDto;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Builds and holds the current {@link CatalogSnapshot}.
+ *
+ * A snapshot is built from the products table at startup and again on every {@link CatalogChangedEvent}.
+ * Bodies are rendered with the application's ObjectMapper, validators come from {@link ProductValidators}
+ * and pages use the controller's default id order, so snapshot responses are byte-for-byte what the
+ * controller would return for the same request. Each build writes a new {@code catalog-<generation>.bin}
+ * plus its {@code .idx}, swaps it in and removes all but the previous generation (which in-flight
+ * responses may still be reading).
+ *
+ * If the table can't be read at startup, the newest snapshot left on disk is served instead and the
+ * build is retried on the change-poll schedule until it succeeds.
+ */
+@Component
+public class CatalogSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("catalog-(\\d+)\\.(bin|idx)(\\.tmp)?");
+
+    /**
+     * The controller's default page order; it is part of the page body and the page ETag.
+     */
+    private static final Sort PAGE_SORT = Sort.by("id");
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final int pageSize;
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private volatile boolean restoredFromDisk;
+    private final Timer buildTimer;
+
+    public CatalogSnapshotService(
+        ProductRepository productRepository,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${novamart.catalog.snapshot.enabled:${CATALOG_SNAPSHOT_ENABLED:false}}") boolean enabled,
+        @Value("${novamart.catalog.snapshot.directory:${java.io.tmpdir}/novamart-catalog-snapshot}") String directory,
+        @Value("${novamart.catalog.snapshot.page-size:20}") int pageSize
+    ) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        this.pageSize = Math.max(1, pageSize);
+
+        this.buildTimer = Timer.builder("novamart.catalog.snapshot.build")
+            .description("Time to render and write a catalog snapshot")
+            .register(meterRegistry);
+        Gauge.builder("novamart.catalog.snapshot.bytes", current, ref -> ref.get() == null ? 0 : ref.get().sizeBytes())
+            .description("Size of the catalog snapshot currently served")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("novamart.catalog.snapshot.age", current, ref -> ref.get() == null
+                ? 0
+                : (System.currentTimeMillis() - ref.get().generation()) / 1000.0)
+            .description("Time since the catalog snapshot currently served was built")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The snapshot to serve from, or null if none is available yet.
+     */
+    public CatalogSnapshot current() {
+        return current.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (!enabled) {
+            return;
+        }
+        if (rebuild()) {
+            return;
+        }
+        try {
+            CatalogSnapshot restored = loadLatest();
+            if (restored != null) {
+                current.set(restored);
+                restoredFromDisk = true;
+                log.warn(
+                    "Serving catalog snapshot generation {} from disk ({} products) until the products table is readable",
+                    restored.generation(),
+                    restored.productCount()
+                );
+            }
+        } catch (IOException e) {
+            log.warn("Failed to restore catalog snapshot from {}: {}", directory, e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(
+        fixedDelayString = "${novamart.catalog.change-poll-interval-ms:2000}",
+        initialDelayString = "${novamart.catalog.change-poll-interval-ms:2000}"
+    )
+    public void retryAfterRestore() {
+        if (enabled && restoredFromDisk) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Builds a fresh snapshot and swaps it in. On failure the current snapshot keeps being served.
+     */
+    synchronized boolean rebuild() {
+        try {
+            CatalogSnapshot built = buildTimer.recordCallable(this::build);
+            current.set(built);
+            restoredFromDisk = false;
+            deleteOlderThanPrevious(built.generation());
+            log.info(
+                "Catalog snapshot generation {} built: {} products, {} bytes",
+                built.generation(),
+                built.productCount(),
+                built.sizeBytes()
+            );
+            return true;
+        } catch (Exception e) {
+            log.warn("Catalog snapshot build failed, keeping the current snapshot: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private CatalogSnapshot build() throws IOException {
+        List<Product> products = productRepository.findAll(PAGE_SORT);
+
+        CatalogSnapshot previous = current.get();
+        long generation = Math.max(System.currentTimeMillis(), previous == null ? 0 : previous.generation() + 1);
+        Files.createDirectories(directory);
+        Path dataFile = file(generation, "bin");
+        Path dataTmp = tmp(dataFile);
+
+        Map<Long, CatalogSnapshot.Entry> details = new HashMap<>(products.size() * 2);
+        List<CatalogSnapshot.Entry> pages = new ArrayList<>();
+        try (SnapshotWriter writer = new SnapshotWriter(dataTmp)) {
+            for (Product product : products) {
+                details.put(product.getId(), writer.append(ProductValidators.forProduct(product, ProductDetailDto.from(product))));
+            }
+
+            // Page 0 always exists, even for an empty catalog, matching what the controller returns.
+            int pageCount = Math.max(1, (products.size() + pageSize - 1) / pageSize);
+            for (int pageNumber = 0; pageNumber < pageCount; pageNumber++) {
+                List<Product> content = products.subList(
+                    Math.min(products.size(), pageNumber * pageSize),
+                    Math.min(products.size(), (pageNumber + 1) * pageSize)
+                );
+                PageRequest pageable = PageRequest.of(pageNumber, pageSize, PAGE_SORT);
+                pages.add(writer.append(ProductValidators.forPage(
+                    content,
+                    pageable + "|" + products.size(),
+                    new PageImpl<>(content.stream().map(ProductSummaryDto::from).toList(), pageable, products.size())
+                )));
+            }
+        }
+        Files.move(dataTmp, dataFile, StandardCopyOption.ATOMIC_MOVE);
+
+        // The index goes last, so an index on disk always has a complete data file next to it.
+        CatalogSnapshot.Index index = new CatalogSnapshot.Index(generation, pageSize, products.size(), details, pages);
+        Path indexFile = file(generation, "idx");
+        Path indexTmp = tmp(indexFile);
+        objectMapper.writeValue(indexTmp.toFile(), index);
+        Files.move(indexTmp, indexFile, StandardCopyOption.ATOMIC_MOVE);
+
+        return CatalogSnapshot.open(dataFile, index);
+    }
+
+    private CatalogSnapshot loadLatest() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        List<Long> generations;
+        try (Stream<Path> files = Files.list(directory)) {
+            generations = files
+                .map(path -> SNAPSHOT_FILE.matcher(path.getFileName().toString()))
+                .filter(matcher -> matcher.matches() && "idx".equals(matcher.group(2)) && matcher.group(3) == null)
+                .map(matcher -> Long.parseLong(matcher.group(1)))
+                .sorted(Comparator.reverseOrder())
+                .toList();
+        }
+        for (long generation : generations) {
+            Path dataFile = file(generation, "bin");
+            if (!Files.exists(dataFile)) {
+                continue;
+            }
+            CatalogSnapshot.Index index = objectMapper.readValue(file(generation, "idx").toFile(), CatalogSnapshot.Index.class);
+            if (index.pageSize() == pageSize) {
+                return CatalogSnapshot.open(dataFile, index);
+            }
+        }
+        return null;
+    }
+
+    private void deleteOlderThanPrevious(long currentGeneration) {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> snapshotFiles = files
+                .filter(path -> SNAPSHOT_FILE.matcher(path.getFileName().toString()).matches())
+                .toList();
+            long previousGeneration = snapshotFiles.stream()
+                .map(path -> generationOf(path))
+                .filter(generation -> generation < currentGeneration)
+                .max(Long::compare)
+                .orElse(-1L);
+            for (Path path : snapshotFiles) {
+                long generation = generationOf(path);
+                if (generation != currentGeneration && generation != previousGeneration) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean up old catalog snapshots in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private Path file(long generation, String extension) {
+        return directory.resolve("catalog-" + generation + "." + extension);
+    }
+
+    private static Path tmp(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+
+    private static long generationOf(Path path) {
+        Matcher matcher = SNAPSHOT_FILE.matcher(path.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /**
+     * Appends rendered bodies to the data file and records where each one landed.
+     */
+    private final class SnapshotWriter implements AutoCloseable {
+
+        private final OutputStream out;
+        private long position;
+
+        SnapshotWriter(Path file) throws IOException {
+            this.out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        }
+
+        CatalogSnapshot.Entry append(Versioned<?> versioned) throws IOException {
+            byte[] json = objectMapper.writeValueAsBytes(versioned.body());
+            byte[] gzip = gzip(json);
+            int offset = write(json);
+            int gzipOffset = write(gzip);
+            return new CatalogSnapshot.Entry(
+                offset,
+                json.length,
+                gzipOffset,
+                gzip.length,
+                versioned.etag(),
+                versioned.lastModifiedMillis()
+            );
+        }
+
+        private int write(byte[] bytes) throws IOException {
+            // A single mapping is addressed with int offsets.
+            if (position + bytes.length > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Catalog snapshot would exceed 2 GiB");
+            }
+            int offset = (int) position;
+            out.write(bytes);
+            position += bytes.length;
+            return offset;
+        }
+
+        private static byte[] gzip(byte[] bytes) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 2 + 32);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                gzip.write(bytes);
+            }
+            return buffer.toByteArray();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+}
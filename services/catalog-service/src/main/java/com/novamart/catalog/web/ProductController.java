@@ -1,19 +1,37 @@
 package com.novamart.catalog.web;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.novamart.catalog.cache.CatalogReadCaches;
+import com.novamart.catalog.cache.Versioned;
 import com.novamart.catalog.domain.Product;
 import com.novamart.catalog.repository.ProductRepository;
+import com.novamart.catalog.search.ProductSearchIndex;
+import com.novamart.catalog.web.dto.ProductBatch;
 import com.novamart.catalog.web.dto.ProductDetailDto;
+import com.novamart.catalog.web.dto.ProductPriceDto;
+import com.novamart.catalog.web.dto.ProductSlice;
 import com.novamart.catalog.web.dto.ProductSummaryDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
 /**
@@ -25,47 +43,195 @@ import org.springframework.web.server.ResponseStatusException;
 public class ProductController {
 
     private final ProductRepository productRepository;
+    private final CatalogReadCaches caches;
+    private final ProductSearchIndex searchIndex;
     private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_BATCH_SIZE = 100;
 
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(
+        ProductRepository productRepository,
+        CatalogReadCaches caches,
+        ProductSearchIndex searchIndex
+    ) {
         this.productRepository = productRepository;
+        this.caches = caches;
+        this.searchIndex = searchIndex;
     }
 
     /**
-     * Returns all products.
+     * Returns all products, by default in id order so that pages are stable and match the browse snapshot.
+     *
+     * Like the other read endpoints it sets ETag and Last-Modified, and answers If-None-Match /
+     * If-Modified-Since with 304 without rendering the body.
      */
     @GetMapping
-    public Page<ProductSummaryDto> getAllProducts(@PageableDefault(size = 20) Pageable pageable) {
+    public Page<ProductSummaryDto> getAllProducts(
+        @PageableDefault(size = 20, sort = "id") Pageable pageable,
+        WebRequest request
+    ) {
         Pageable effectivePageable = clampPageSize(pageable);
-        return productRepository.findAll(effectivePageable)
-            .map(ProductController::toSummaryDto);
+        Versioned<Page<ProductSummaryDto>> page = caches.pages().get(effectivePageable, () -> {
+            Page<Product> products = productRepository.findAll(effectivePageable);
+            return ProductValidators.forPage(
+                products.getContent(),
+                effectivePageable + "|" + products.getTotalElements(),
+                products.map(ProductSummaryDto::from)
+            );
+        });
+        return renderUnlessNotModified(page, request);
+    }
+
+    /**
+     * Returns products in keyset (cursor) mode: pass an empty cursor for the first page, then the returned
+     * nextCursor. Unlike the offset mode, no count query runs and deep pages cost the same as the first.
+     */
+    @GetMapping(params = {"cursor", "!ids"})
+    public ProductSlice getProductsAfter(
+        @RequestParam String cursor,
+        @RequestParam(defaultValue = "id") String sort,
+        @RequestParam(defaultValue = "20") int size,
+        WebRequest request
+    ) {
+        int effectiveSize = clampPageSize(size);
+        Versioned<ProductSlice> slice = caches.slices().get(
+            cursor + "|" + sort + "|" + effectiveSize,
+            () -> loadSlice(cursor, sort, effectiveSize)
+        );
+        return renderUnlessNotModified(slice, request);
+    }
+
+    /**
+     * Returns several products in one call, e.g. {@code GET /products?ids=3,1,2}, for hydrating carts and
+     * recommendation widgets. Items come back in request order (duplicates collapsed) and ids that don't
+     * exist are listed in {@code missingIds}. Cached products are served from the detail cache; the rest
+     * are loaded with a single {@code id in (...)} query.
+     */
+    @GetMapping(params = {"ids", "!cursor"})
+    public ProductBatch getProductsByIds(@RequestParam List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                "At most " + MAX_BATCH_SIZE + " ids per request"
+            );
+        }
+
+        Map<Long, Versioned<ProductDetailDto>> found = caches.details().getAll(
+            requested,
+            missing -> productRepository.findAllById(missing).stream()
+                .collect(Collectors.toMap(
+                    Product::getId,
+                    product -> ProductValidators.forProduct(product, ProductDetailDto.from(product)),
+                    (first, second) -> first
+                ))
+        );
+
+        List<ProductDetailDto> items = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Versioned<ProductDetailDto> product = found.get(id);
+            if (product != null) {
+                items.add(product.body());
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatch(items, missingIds);
+    }
+
+    /**
+     * A batch lookup has no pages, so {@code ids} and {@code cursor} together are a client error rather than
+     * a request for either mode.
+     */
+    @GetMapping(params = {"ids", "cursor"})
+    public ProductBatch rejectIdsWithCursor() {
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "ids cannot be combined with cursor");
+    }
+
+    /**
+     * Returns id, sku and price of every product, for services that keep a local price table (order-service
+     * prices orders from it). Pollers should send If-None-Match: the tag only changes when a price or sku
+     * does, so an unchanged list costs a 304.
+     */
+    @GetMapping("/prices")
+    public List<ProductPriceDto> getPrices(WebRequest request) {
+        Versioned<List<ProductPriceDto>> prices = caches.prices().get(
+            "all",
+            () -> ProductValidators.forPriceList(productRepository.findAllPrices())
+        );
+        return renderUnlessNotModified(prices, request);
+    }
+
+    /**
+     * Searches product names, descriptions and skus. Every word must match; the last one also matches as
+     * a prefix, so this works for typeahead. Served from the in-memory index, never from the database.
+     */
+    @GetMapping("/search")
+    public List<ProductSummaryDto> searchProducts(
+        @RequestParam String q,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        if (!searchIndex.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search index not ready");
+        }
+        return searchIndex.search(q, clampPageSize(limit));
     }
 
     /**
      * Returns a single product by its id.
      */
     @GetMapping("/{id}")
-    public ProductDetailDto getProductById(@PathVariable Long id) {
-        Product product = productRepository.findById(id)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found"));
-        return toDetailDto(product);
+    public ProductDetailDto getProductById(@PathVariable Long id, WebRequest request) {
+        Versioned<ProductDetailDto> product = caches.details().get(
+            id,
+            () -> productRepository.findById(id)
+                .map(found -> ProductValidators.forProduct(found, ProductDetailDto.from(found)))
+                .orElse(null)
+        );
+        if (product == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Product not found");
+        }
+        return renderUnlessNotModified(product, request);
     }
 
-    private static ProductSummaryDto toSummaryDto(Product product) {
-        return new ProductSummaryDto(product.getId(), product.getName(), product.getPrice());
+    /**
+     * Returns the body, or null after Spring has turned the response into a 304 because the client's
+     * validators still match. The ETag and Last-Modified headers are set either way.
+     */
+    private static <T> T renderUnlessNotModified(Versioned<T> versioned, WebRequest request) {
+        if (request.checkNotModified(versioned.etag(), versioned.lastModifiedMillis())) {
+            return null;
+        }
+        return versioned.body();
     }
 
-    private static ProductDetailDto toDetailDto(Product product) {
-        return new ProductDetailDto(
-            product.getId(),
-            product.getName(),
-            product.getPrice(),
-            product.getDescription(),
-            product.getImageUrl()
+    private Versioned<ProductSlice> loadSlice(String cursor, String sort, int size) {
+        ProductCursor position = cursor.isBlank() ? null : ProductCursor.decode(cursor);
+        ProductCursor.SortKey sortKey = position != null ? position.sortKey() : ProductCursor.SortKey.from(sort);
+
+        Window<Product> window = productRepository.findAllBy(
+            position != null ? position.toScrollPosition() : ScrollPosition.keyset(),
+            sortKey.sort(),
+            Limit.of(size)
         );
+
+        List<Product> products = window.getContent();
+        String nextCursor = window.hasNext() && !products.isEmpty()
+            ? ProductCursor.after(sortKey, products.get(products.size() - 1)).encode()
+            : null;
+        return ProductValidators.forPage(
+            products,
+            sortKey + "|" + cursor + "|" + nextCursor,
+            new ProductSlice(products.stream().map(ProductSummaryDto::from).toList(), nextCursor)
+        );
+    }
+
+    static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 
-    private static Pageable clampPageSize(Pageable pageable) {
+    static Pageable clampPageSize(Pageable pageable) {
         int size = Math.min(pageable.getPageSize(), MAX_PAGE_SIZE);
         if (size == pageable.getPageSize()) {
             return pageable;
@@ -0,0 +1,95 @@
+package com.novamart.catalog.web;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.novamart.catalog.domain.Product;
+
+/**
+ * Keyset position in a product listing: the sort key and the (sort value, id) of the last product on the
+ * previous page, exchanged with clients as an opaque URL-safe token.
+ */
+record ProductCursor(SortKey sortKey, Object value, Long id) {
+
+    /**
+     * Sort orders available in keyset mode. Each is backed by an index ending in id, which breaks ties.
+     */
+    enum SortKey {
+        ID("id"),
+        NAME("name"),
+        PRICE("price");
+
+        private final String property;
+
+        SortKey(String property) {
+            this.property = property;
+        }
+
+        static SortKey from(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported sort: " + value);
+            }
+        }
+
+        Sort sort() {
+            return this == ID ? Sort.by("id") : Sort.by(property).and(Sort.by("id"));
+        }
+
+        private Object valueOf(Product product) {
+            return switch (this) {
+                case ID -> product.getId();
+                case NAME -> product.getName();
+                case PRICE -> product.getPrice();
+            };
+        }
+
+        private Object parse(String raw) {
+            return switch (this) {
+                case ID -> Long.valueOf(raw);
+                case NAME -> raw;
+                case PRICE -> new BigDecimal(raw);
+            };
+        }
+    }
+
+    static ProductCursor after(SortKey sortKey, Product product) {
+        return new ProductCursor(sortKey, sortKey.valueOf(product), product.getId());
+    }
+
+    static ProductCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = raw.indexOf('|');
+            int last = raw.lastIndexOf('|');
+            SortKey sortKey = SortKey.valueOf(raw.substring(0, first));
+            Long id = Long.valueOf(raw.substring(last + 1));
+            Object value = sortKey == SortKey.ID ? id : sortKey.parse(raw.substring(first + 1, last));
+            return new ProductCursor(sortKey, value, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String raw = sortKey.name() + "|" + (sortKey == SortKey.ID ? "" : value) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    KeysetScrollPosition toScrollPosition() {
+        if (sortKey == SortKey.ID) {
+            return ScrollPosition.forward(Map.of("id", id));
+        }
+        return ScrollPosition.forward(Map.of(sortKey.property, value, "id", id));
+    }
+}
@@ -0,0 +1,64 @@
+package com.novamart.catalog.web;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.springframework.util.DigestUtils;
+
+import com.novamart.catalog.cache.Versioned;
+import com.novamart.catalog.domain.Product;
+import com.novamart.catalog.web.dto.ProductPriceDto;
+
+/**
+ * Builds ETag / Last-Modified validators for product responses.
+ *
+ * A single product's tag is its id plus {@code updatedAt} in microseconds. A page's tag is a digest of the
+ * ids and update times of every product on it plus the caller's page metadata (totals, cursor), so it
+ * changes whenever any product on the page changes or the page composition shifts. The price list's tag
+ * is a digest of its content, so it only changes when a sku or price does.
+ */
+public final class ProductValidators {
+
+    private ProductValidators() {
+    }
+
+    public static <T> Versioned<T> forProduct(Product product, T body) {
+        String etag = "\"" + product.getId() + "-" + micros(product.getUpdatedAt()) + "\"";
+        return new Versioned<>(body, etag, millis(product.getUpdatedAt()));
+    }
+
+    public static <T> Versioned<T> forPage(List<Product> products, String pageMetadata, T body) {
+        StringBuilder fingerprint = new StringBuilder(pageMetadata);
+        long lastModified = -1;
+        for (Product product : products) {
+            fingerprint.append('|').append(product.getId()).append(':').append(micros(product.getUpdatedAt()));
+            lastModified = Math.max(lastModified, millis(product.getUpdatedAt()));
+        }
+        String digest = DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+        return new Versioned<>(body, "\"p-" + digest + "\"", lastModified);
+    }
+
+    public static Versioned<List<ProductPriceDto>> forPriceList(List<ProductPriceDto> prices) {
+        StringBuilder fingerprint = new StringBuilder();
+        for (ProductPriceDto price : prices) {
+            fingerprint.append(price.id()).append(':').append(price.sku()).append(':')
+                .append(price.price() == null ? "" : price.price().toPlainString()).append('|');
+        }
+        String digest = DigestUtils.md5DigestAsHex(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+        return new Versioned<>(prices, "\"prices-" + digest + "\"", -1);
+    }
+
+    private static long micros(OffsetDateTime timestamp) {
+        if (timestamp == null) {
+            return 0;
+        }
+        Instant instant = timestamp.toInstant();
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    private static long millis(OffsetDateTime timestamp) {
+        return timestamp == null ? -1 : timestamp.toInstant().toEpochMilli();
+    }
+}
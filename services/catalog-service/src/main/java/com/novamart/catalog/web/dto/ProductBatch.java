@@ -0,0 +1,10 @@
+package com.novamart.catalog.web.dto;
+
+import java.util.List;
+
+/**
+ * Result of a bulk product lookup: the products found, in request order, and the requested ids that don't
+ * exist.
+ */
+public record ProductBatch(List<ProductDetailDto> items, List<Long> missingIds) {
+}
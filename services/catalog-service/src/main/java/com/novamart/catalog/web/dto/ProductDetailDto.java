@@ -2,6 +2,8 @@ package com.novamart.catalog.web.dto;
 
 import java.math.BigDecimal;
 
+import com.novamart.catalog.domain.Product;
+
 /**
  * Detailed DTO for single-product responses.
  */
@@ -12,4 +14,14 @@ public record ProductDetailDto(
     String description,
     String imageUrl
 ) {
+
+    public static ProductDetailDto from(Product product) {
+        return new ProductDetailDto(
+            product.getId(),
+            product.getName(),
+            product.getPrice(),
+            product.getDescription(),
+            product.getImageUrl()
+        );
+    }
 }
@@ -0,0 +1,9 @@
+package com.novamart.catalog.web.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of the price list other services cache to price orders.
+ */
+public record ProductPriceDto(Long id, String sku, BigDecimal price) {
+}
@@ -0,0 +1,9 @@
+package com.novamart.catalog.web.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of products. {@code nextCursor} is null on the last page.
+ */
+public record ProductSlice(List<ProductSummaryDto> items, String nextCursor) {
+}
@@ -2,8 +2,14 @@ package com.novamart.catalog.web.dto;
 
 import java.math.BigDecimal;
 
+import com.novamart.catalog.domain.Product;
+
 /**
  * Lightweight DTO for list views of products.
  */
 public record ProductSummaryDto(Long id, String name, BigDecimal price) {
+
+    public static ProductSummaryDto from(Product product) {
+        return new ProductSummaryDto(product.getId(), product.getName(), product.getPrice());
+    }
 }
@@ -0,0 +1,126 @@
+package com.novamart.catalog.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Hits, expiry and invalidation of the read cache, in particular that a load overtaken by an invalidation
+ * is returned to its caller but never cached.
+ */
+class ReadCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void secondReadIsAHit() {
+        ReadCache<String, String> cache = cache(60_000);
+
+        cache.get("a", loader("v1"));
+        String second = cache.get("a", loader("v2"));
+
+        assertThat(second).isEqualTo("v1");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(requests("hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    void loadStartedBeforeAnInvalidationIsNotCached() {
+        ReadCache<String, String> cache = cache(60_000);
+
+        // The catalog changes while the stale row is being read: the caller still gets what was read...
+        String raced = cache.get("a", () -> {
+            loads.incrementAndGet();
+            cache.invalidateAll();
+            return "stale";
+        });
+        assertThat(raced).isEqualTo("stale");
+
+        // ...but the next read loads again and that result is kept.
+        assertThat(cache.get("a", loader("fresh"))).isEqualTo("fresh");
+        assertThat(cache.get("a", loader("later"))).isEqualTo("fresh");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void bulkLoadStartedBeforeAnInvalidationIsNotCached() {
+        ReadCache<Long, String> cache = new ReadCache<>("test", true, 100, 60_000, meterRegistry);
+
+        Map<Long, String> raced = cache.getAll(List.of(1L, 2L), missing -> {
+            cache.invalidateAll();
+            return values(missing, "stale");
+        });
+        assertThat(raced).isEqualTo(Map.of(1L, "stale", 2L, "stale"));
+
+        AtomicInteger loaded = new AtomicInteger();
+        Map<Long, String> fresh = cache.getAll(List.of(1L, 2L), missing -> {
+            loaded.addAndGet(missing.size());
+            return values(missing, "fresh");
+        });
+        assertThat(fresh).isEqualTo(Map.of(1L, "fresh", 2L, "fresh"));
+        assertThat(loaded.get()).isEqualTo(2);
+
+        Map<Long, String> cached = cache.getAll(List.of(2L, 1L), missing -> values(missing, "later"));
+        assertThat(cached).isEqualTo(Map.of(1L, "fresh", 2L, "fresh"));
+    }
+
+    @Test
+    void invalidationDropsCachedEntries() {
+        ReadCache<String, String> cache = cache(60_000);
+        cache.get("a", loader("v1"));
+
+        cache.invalidateAll();
+
+        assertThat(cache.get("a", loader("v2"))).isEqualTo("v2");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() throws InterruptedException {
+        ReadCache<String, String> cache = cache(20);
+        cache.get("a", loader("v1"));
+
+        TimeUnit.MILLISECONDS.sleep(40);
+
+        assertThat(cache.get("a", loader("v2"))).isEqualTo("v2");
+    }
+
+    @Test
+    void nullResultsAreNotCached() {
+        ReadCache<String, String> cache = cache(60_000);
+
+        assertThat(cache.get("a", loader(null))).isNull();
+        assertThat(cache.get("a", loader("v1"))).isEqualTo("v1");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private ReadCache<String, String> cache(long ttlMs) {
+        return new ReadCache<>("test", true, 100, ttlMs, meterRegistry);
+    }
+
+    private Supplier<String> loader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+
+    private static Map<Long, String> values(Set<Long> keys, String value) {
+        return keys.stream().collect(Collectors.toMap(key -> key, key -> value));
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("novamart.catalog.cache.requests").tag("result", result).counter().count();
+    }
+}
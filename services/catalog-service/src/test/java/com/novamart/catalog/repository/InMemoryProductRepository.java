@@ -0,0 +1,108 @@
+package com.novamart.catalog.repository;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.data.domain.Sort;
+
+import com.novamart.catalog.domain.Product;
+
+/**
+ * A {@link ProductRepository} over a map, for tests of the components that read the whole table. Only the
+ * reads they use are implemented ({@code findAll()}, {@code findAll(Sort.by("id"))}, {@code findAllById},
+ * {@code findByUpdatedAtGreaterThanEqual}, {@code count()}); anything else throws. Rows are returned in id
+ * order. {@link #failWith} makes every read throw, like an unreachable database, and {@link #reads} counts
+ * the calls that got through.
+ */
+public final class InMemoryProductRepository {
+
+    private final Map<Long, Product> products = new TreeMap<>();
+    private volatile RuntimeException failure;
+    private final AtomicInteger reads = new AtomicInteger();
+
+    private final ProductRepository repository = (ProductRepository) Proxy.newProxyInstance(
+        ProductRepository.class.getClassLoader(),
+        new Class<?>[] {ProductRepository.class},
+        (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "InMemoryProductRepository";
+                };
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            reads.incrementAndGet();
+            return switch (method.getName()) {
+                case "findAll" -> findAll(args);
+                case "findAllById" -> findAllById((Iterable<?>) args[0]);
+                case "findByUpdatedAtGreaterThanEqual" -> updatedSince((OffsetDateTime) args[0]);
+                case "count" -> (long) products.size();
+                default -> throw new UnsupportedOperationException(method.toString());
+            };
+        }
+    );
+
+    public ProductRepository repository() {
+        return repository;
+    }
+
+    public synchronized Product save(long id, String sku, String name, String description, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setSku(sku);
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(price == null ? null : new BigDecimal(price));
+        OffsetDateTime now = OffsetDateTime.now();
+        product.setCreatedAt(products.containsKey(id) ? products.get(id).getCreatedAt() : now);
+        product.setUpdatedAt(now);
+        products.put(id, product);
+        return product;
+    }
+
+    public synchronized void delete(long id) {
+        products.remove(id);
+    }
+
+    public void failWith(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    public int reads() {
+        return reads.get();
+    }
+
+    private synchronized List<Product> findAll(Object[] args) {
+        if (args == null || args.length == 0) {
+            return new ArrayList<>(products.values());
+        }
+        if (args.length == 1 && Sort.by("id").equals(args[0])) {
+            return new ArrayList<>(products.values());
+        }
+        throw new UnsupportedOperationException("findAll" + List.of(args));
+    }
+
+    private synchronized List<Product> findAllById(Iterable<?> ids) {
+        List<Product> found = new ArrayList<>();
+        for (Object id : ids) {
+            Product product = products.get((Long) id);
+            if (product != null) {
+                found.add(product);
+            }
+        }
+        return found;
+    }
+
+    private synchronized List<Product> updatedSince(OffsetDateTime since) {
+        return products.values().stream().filter(product -> !product.getUpdatedAt().isBefore(since)).toList();
+    }
+}
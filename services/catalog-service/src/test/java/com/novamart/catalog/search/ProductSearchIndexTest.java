@@ -0,0 +1,136 @@
+package com.novamart.catalog.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.novamart.catalog.cache.CatalogChangedEvent;
+import com.novamart.catalog.repository.InMemoryProductRepository;
+import com.novamart.catalog.web.dto.ProductSummaryDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Matching, ranking and incremental updates of the search index over an in-memory products table.
+ */
+class ProductSearchIndexTest {
+
+    private final InMemoryProductRepository products = new InMemoryProductRepository();
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        products.save(1, "KB-100", "Wireless Keyboard", "Compact keyboard with backlight", "49.99");
+        products.save(2, "MS-200", "Wireless Mouse", "Ergonomic mouse", "19.99");
+        products.save(3, "KB-300", "Mechanical Keyboard", "Wired keyboard, brown switches", "89.99");
+        products.save(4, "CB-400", "USB Cable", "Braided cable for keyboards and mice", "9.99");
+        index = new ProductSearchIndex(products.repository(), new SimpleMeterRegistry());
+        index.rebuild();
+    }
+
+    @Test
+    void everyTermMustMatch() {
+        assertThat(ids("wireless")).isEqualTo(List.of(2L, 1L));
+        assertThat(ids("wireless keyboard")).isEqualTo(List.of(1L));
+        assertThat(ids("wireless cable")).isEqualTo(List.of());
+    }
+
+    @Test
+    void onlyTheLastTermMatchesAsAPrefix() {
+        assertThat(ids("mechanical key")).isEqualTo(List.of(3L));
+        assertThat(ids("key mechanical")).isEqualTo(List.of());
+    }
+
+    @Test
+    void exactMatchesRankAbovePrefixMatches() {
+        products.save(5, "WM-500", "Keyboard Wall Mount", "Metal", "29.99");
+        products.save(6, "ST-600", "Keyboards Stand", "Metal", "24.99");
+        index.rebuild();
+
+        // 5 and 6 both match in the name, 6 only through the prefix, even though its shorter name would win a tie.
+        assertThat(ids("keyboard")).isEqualTo(List.of(1L, 3L, 5L, 6L, 4L));
+        // Everything is a prefix match here; between equal scores the shorter name goes first.
+        assertThat(ids("keyb")).isEqualTo(List.of(1L, 3L, 6L, 5L, 4L));
+    }
+
+    @Test
+    void skuMatchesRankAboveNameAboveDescription() {
+        products.save(5, "DP-7", "Desk Mat", "Felt pad for desks", "14.99");
+        products.save(6, "DS-6", "Desk Pad", "Felt", "12.99");
+        products.save(7, "PAD-5", "Travel Mat", "Foam", "9.99");
+        index.rebuild();
+
+        assertThat(ids("pad")).isEqualTo(List.of(7L, 6L, 5L));
+    }
+
+    @Test
+    void matchingIgnoresCaseAndAccents() {
+        products.save(5, "CF-500", "Cr\u00e8me Br\u00fbl\u00e9e Torch", "Kitchen torch", "24.99");
+        index.rebuild();
+
+        assertThat(ids("CREME brulee")).isEqualTo(List.of(5L));
+    }
+
+    @Test
+    void limitCapsTheResults() {
+        assertThat(index.search("keyboard", 2).size()).isEqualTo(2);
+        assertThat(index.search("   ", 10)).isEqualTo(List.of());
+    }
+
+    @Test
+    void changedProductsAreReindexed() {
+        products.save(2, "MS-200", "Bluetooth Mouse", "Ergonomic mouse", "21.99");
+        products.save(5, "HS-500", "Wireless Headset", "Over-ear headset", "59.99");
+
+        index.onCatalogChanged(new CatalogChangedEvent(OffsetDateTime.now(), 5));
+
+        assertThat(ids("wireless")).isEqualTo(List.of(5L, 1L));
+        assertThat(ids("bluetooth")).isEqualTo(List.of(2L));
+        List<ProductSummaryDto> mouse = index.search("bluetooth", 10);
+        assertThat(mouse.get(0).price().toPlainString()).isEqualTo("21.99");
+    }
+
+    @Test
+    void lateCommitWithAnOlderTimestampIsReindexed() {
+        OffsetDateTime newest = products.save(5, "HS-500", "Wireless Headset", "Over-ear headset", "59.99").getUpdatedAt();
+        index.onCatalogChanged(new CatalogChangedEvent(newest, 5));
+
+        // Stamped before product 5 but committed after the index read it.
+        products.save(2, "MS-200", "Bluetooth Mouse", "Ergonomic mouse", "21.99").setUpdatedAt(newest.minusSeconds(1));
+        index.onCatalogChanged(new CatalogChangedEvent(newest, 5));
+
+        assertThat(ids("bluetooth")).isEqualTo(List.of(2L));
+    }
+
+    @Test
+    void deletedProductsDropOutOnTheNextChange() {
+        products.delete(3);
+
+        index.onCatalogChanged(new CatalogChangedEvent(OffsetDateTime.now(), 3));
+
+        assertThat(ids("keyboard")).isEqualTo(List.of(1L, 4L));
+        assertThat(ids("mechanical")).isEqualTo(List.of());
+    }
+
+    @Test
+    void notReadyUntilTheFirstBuildSucceeds() {
+        products.failWith(new IllegalStateException("database unreachable"));
+        ProductSearchIndex fresh = new ProductSearchIndex(products.repository(), new SimpleMeterRegistry());
+
+        fresh.rebuild();
+        assertThat(fresh.isReady()).isFalse();
+
+        products.failWith(null);
+        fresh.retryIfNotReady();
+        assertThat(fresh.isReady()).isTrue();
+        assertThat(fresh.search("cable", 10).size()).isEqualTo(1);
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, 10).stream().map(ProductSummaryDto::id).toList();
+    }
+}
@@ -0,0 +1,194 @@
+package com.novamart.catalog.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import jakarta.servlet.ServletException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.novamart.catalog.repository.InMemoryProductRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Which product reads the filter answers from the snapshot and how, and which it hands to the controller.
+ */
+class CatalogSnapshotFilterTest {
+
+    private final InMemoryProductRepository products = new InMemoryProductRepository();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private Path directory;
+    private CatalogSnapshotService snapshots;
+    private CatalogSnapshotFilter filter;
+
+    @BeforeEach
+    void buildSnapshot() throws IOException {
+        for (long id = 1; id <= 45; id++) {
+            products.save(id, "SKU-" + id, "Product " + id, "Description " + id, id + ".99");
+        }
+        directory = Files.createTempDirectory("catalog-snapshot-filter-test");
+        snapshots = service(true);
+        snapshots.rebuild();
+        filter = new CatalogSnapshotFilter(snapshots, meterRegistry);
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void servesTheDefaultPageFromTheSnapshot() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        request.setParameter("page", "1");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+
+        CatalogSnapshot snapshot = snapshots.current();
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("application/json");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(response.getHeader("ETag")).isEqualTo(snapshot.page(1).etag());
+        assertThat(response.getContentAsString()).isEqualTo(utf8(snapshot.body(snapshot.page(1), false)));
+        assertThat(served()).isEqualTo(1.0);
+    }
+
+    @Test
+    void servesGzipOnlyWhenTheClientAcceptsIt() throws Exception {
+        CatalogSnapshot snapshot = snapshots.current();
+
+        MockHttpServletResponse gzip = get("/products/7", "Accept-Encoding", "br, gzip;q=0.8");
+        assertThat(gzip.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(ByteBuffer.wrap(gzip.getContentAsByteArray())).isEqualTo(snapshot.body(snapshot.detail(7L), true));
+
+        MockHttpServletResponse refused = get("/products/7", "Accept-Encoding", "gzip;q=0");
+        assertThat(refused.getHeader("Content-Encoding")).isNull();
+        assertThat(refused.getContentAsString()).isEqualTo(utf8(snapshot.body(snapshot.detail(7L), false)));
+    }
+
+    @Test
+    void answersAMatchingIfNoneMatchWithNotModified() throws Exception {
+        String etag = snapshots.current().detail(7L).etag();
+
+        MockHttpServletResponse response = get("/products/7", "If-None-Match", etag);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray().length).isZero();
+    }
+
+    @Test
+    void headSetsTheLengthWithoutABody() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("HEAD", "/products/7");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        CatalogSnapshot snapshot = snapshots.current();
+        assertThat(response.getContentLength()).isEqualTo(snapshot.detail(7L).length());
+        assertThat(response.getContentAsByteArray().length).isZero();
+    }
+
+    @Test
+    void handsTheBodyToTomcatSendfileWhenAvailable() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/7");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        CatalogSnapshot.Entry entry = snapshots.current().detail(7L);
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename"))
+            .isEqualTo(snapshots.current().file().toAbsolutePath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo((long) entry.offset());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo((long) entry.offset() + entry.length());
+        assertThat(response.getContentAsByteArray().length).isZero();
+    }
+
+    @Test
+    void passesThroughWhatTheSnapshotCannotAnswer() throws Exception {
+        assertPassesThrough(request("/products", "sort", "name"));
+        assertPassesThrough(request("/products", "size", "50"));
+        assertPassesThrough(request("/products", "page", "-1"));
+        assertPassesThrough(request("/products", "page", "3"));
+        assertPassesThrough(request("/products", "cursor", "abc"));
+        assertPassesThrough(request("/products", "ids", "1,2"));
+        assertPassesThrough(request("/products/search", "q", "product"));
+        assertPassesThrough(new MockHttpServletRequest("GET", "/products/999"));
+        assertPassesThrough(new MockHttpServletRequest("DELETE", "/products/7"));
+        assertPassesThrough(new MockHttpServletRequest("GET", "/actuator/health"));
+
+        assertThat(served()).isZero();
+        assertThat(meterRegistry.get("novamart.catalog.snapshot.requests").tag("result", "passthrough").counter().count())
+            .isEqualTo(8.0);
+    }
+
+    @Test
+    void passesEverythingThroughWhenDisabled() throws Exception {
+        filter = new CatalogSnapshotFilter(service(false), meterRegistry);
+
+        assertPassesThrough(new MockHttpServletRequest("GET", "/products"));
+        assertThat(served()).isZero();
+    }
+
+    private CatalogSnapshotService service(boolean enabled) {
+        return new CatalogSnapshotService(
+            products.repository(),
+            JsonMapper.builder().findAndAddModules().build(),
+            new SimpleMeterRegistry(),
+            enabled,
+            directory.toString(),
+            20
+        );
+    }
+
+    private MockHttpServletResponse get(String uri, String header, String value) throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.addHeader(header, value);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String uri, String parameter, String value) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setParameter(parameter, value);
+        return request;
+    }
+
+    private void assertPassesThrough(MockHttpServletRequest request) throws ServletException, IOException {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(response.getContentAsByteArray().length).isZero();
+    }
+
+    private double served() {
+        return meterRegistry.get("novamart.catalog.snapshot.requests").tag("result", "served").counter().count();
+    }
+
+    private static String utf8(ByteBuffer body) {
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,197 @@
+package com.novamart.catalog.snapshot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.novamart.catalog.domain.Product;
+import com.novamart.catalog.repository.InMemoryProductRepository;
+import com.novamart.catalog.web.ProductValidators;
+import com.novamart.catalog.web.dto.ProductDetailDto;
+import com.novamart.catalog.web.dto.ProductSummaryDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Snapshot builds against an in-memory products table, compared with what the controller renders for the
+ * same request, and restores from the files a previous instance left on disk.
+ */
+class CatalogSnapshotServiceTest {
+
+    private static final int PAGE_SIZE = 20;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final InMemoryProductRepository products = new InMemoryProductRepository();
+    private Path directory;
+
+    @BeforeEach
+    void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("catalog-snapshot-test");
+        for (long id = 45; id >= 1; id--) {
+            products.save(id, "SKU-" + id, "Product " + id, "Description " + id, id + ".99");
+        }
+    }
+
+    @AfterEach
+    void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void buildRendersWhatTheControllerReturns() throws IOException {
+        CatalogSnapshotService service = service(PAGE_SIZE);
+
+        assertThat(service.rebuild()).isTrue();
+
+        CatalogSnapshot snapshot = service.current();
+        assertThat(snapshot.productCount()).isEqualTo(45L);
+        assertThat(snapshot.pageSize()).isEqualTo(PAGE_SIZE);
+
+        Product product = products.repository().findAll().get(6);
+        CatalogSnapshot.Entry detail = snapshot.detail(7L);
+        assertThat(utf8(snapshot.body(detail, false))).isEqualTo(render(ProductDetailDto.from(product)));
+        assertThat(detail.etag()).isEqualTo(ProductValidators.forProduct(product, null).etag());
+
+        // What ProductController.getAllProducts returns for GET /products?page=1 with its default pageable.
+        PageRequest pageable = PageRequest.of(1, PAGE_SIZE, Sort.by("id"));
+        List<Product> content = products.repository().findAll(Sort.by("id")).subList(20, 40);
+        PageImpl<ProductSummaryDto> page = new PageImpl<>(content.stream().map(ProductSummaryDto::from).toList(), pageable, 45);
+        CatalogSnapshot.Entry second = snapshot.page(1);
+        assertThat(utf8(snapshot.body(second, false))).isEqualTo(render(page));
+        assertThat(second.etag()).isEqualTo(ProductValidators.forPage(content, pageable + "|" + 45, page).etag());
+
+        assertThat(gunzip(snapshot.body(second, true))).isEqualTo(utf8(snapshot.body(second, false)));
+        assertThat(snapshot.page(2)).isNotNull();
+        assertThat(snapshot.page(3)).isNull();
+        assertThat(snapshot.detail(46L)).isNull();
+    }
+
+    @Test
+    void emptyCatalogStillHasAFirstPage() throws IOException {
+        for (long id = 1; id <= 45; id++) {
+            products.delete(id);
+        }
+        CatalogSnapshotService service = service(PAGE_SIZE);
+
+        assertThat(service.rebuild()).isTrue();
+
+        PageImpl<ProductSummaryDto> empty = new PageImpl<>(List.of(), PageRequest.of(0, PAGE_SIZE, Sort.by("id")), 0);
+        CatalogSnapshot snapshot = service.current();
+        assertThat(utf8(snapshot.body(snapshot.page(0), false))).isEqualTo(render(empty));
+        assertThat(snapshot.page(1)).isNull();
+    }
+
+    @Test
+    void failedRebuildKeepsServingTheCurrentSnapshot() {
+        CatalogSnapshotService service = service(PAGE_SIZE);
+        service.rebuild();
+        CatalogSnapshot built = service.current();
+
+        products.failWith(new IllegalStateException("database unreachable"));
+
+        assertThat(service.rebuild()).isFalse();
+        assertThat(service.current()).isSameAs(built);
+    }
+
+    @Test
+    void startupRestoresTheNewestSnapshotOnDiskWhenTheTableIsUnreadable() throws IOException {
+        CatalogSnapshotService previous = service(PAGE_SIZE);
+        previous.rebuild();
+        products.save(46, "SKU-46", "Product 46", null, "1.00");
+        previous.rebuild();
+        long newest = previous.current().generation();
+        String firstPage = utf8(previous.current().body(previous.current().page(0), false));
+
+        products.failWith(new IllegalStateException("database unreachable"));
+        CatalogSnapshotService restarted = service(PAGE_SIZE);
+        restarted.onStartup();
+
+        CatalogSnapshot restored = restarted.current();
+        assertThat(restored.generation()).isEqualTo(newest);
+        assertThat(restored.productCount()).isEqualTo(46L);
+        assertThat(utf8(restored.body(restored.page(0), false))).isEqualTo(firstPage);
+        assertThat(restored.detail(46L).etag()).isEqualTo(previous.current().detail(46L).etag());
+
+        products.failWith(null);
+        restarted.retryAfterRestore();
+        assertThat(restarted.current().generation() > newest).isTrue();
+    }
+
+    @Test
+    void startupIgnoresSnapshotsWithAnotherPageSize() {
+        service(PAGE_SIZE).rebuild();
+
+        products.failWith(new IllegalStateException("database unreachable"));
+        CatalogSnapshotService restarted = service(50);
+        restarted.onStartup();
+
+        assertThat(restarted.current()).isNull();
+    }
+
+    @Test
+    void rebuildKeepsOnlyTheCurrentAndPreviousGeneration() throws IOException {
+        CatalogSnapshotService service = service(PAGE_SIZE);
+        service.rebuild();
+        service.rebuild();
+        service.rebuild();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(4L);
+        }
+        assertThat(Files.exists(service.current().file())).isTrue();
+    }
+
+    private CatalogSnapshotService service(int pageSize) {
+        return new CatalogSnapshotService(
+            products.repository(),
+            objectMapper,
+            new SimpleMeterRegistry(),
+            true,
+            directory.toString(),
+            pageSize
+        );
+    }
+
+    private String render(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String utf8(ByteBuffer body) {
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String gunzip(ByteBuffer body) throws IOException {
+        byte[] bytes = new byte[body.remaining()];
+        body.get(bytes);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.novamart.catalog.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import com.novamart.catalog.cache.CatalogReadCaches;
+import com.novamart.catalog.repository.InMemoryProductRepository;
+import com.novamart.catalog.search.ProductSearchIndex;
+import com.novamart.catalog.web.dto.ProductBatch;
+import com.novamart.catalog.web.dto.ProductDetailDto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The batch lookup ({@code GET /products?ids=}) over an in-memory products table, and which handler each
+ * combination of list parameters reaches.
+ */
+class ProductControllerTest {
+
+    private final InMemoryProductRepository products = new InMemoryProductRepository();
+    private ProductController controller;
+
+    @BeforeEach
+    void createController() {
+        products.save(1, "KB-100", "Wireless Keyboard", "Compact keyboard", "49.99");
+        products.save(2, "MS-200", "Wireless Mouse", "Ergonomic mouse", "19.99");
+        products.save(3, "CB-300", "USB Cable", "Braided cable", "9.99");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        controller = new ProductController(
+            products.repository(),
+            new CatalogReadCaches(true, 60_000, 100, 100, meterRegistry),
+            new ProductSearchIndex(products.repository(), meterRegistry)
+        );
+    }
+
+    @Test
+    void batchKeepsRequestOrderAndCollapsesDuplicates() {
+        ProductBatch batch = controller.getProductsByIds(List.of(3L, 1L, 3L, 2L, 1L));
+
+        assertThat(ids(batch)).isEqualTo(List.of(3L, 1L, 2L));
+        assertThat(batch.missingIds()).isEqualTo(List.of());
+    }
+
+    @Test
+    void batchListsMissingIdsInRequestOrder() {
+        ProductBatch batch = controller.getProductsByIds(List.of(9L, 2L, 7L, 9L));
+
+        assertThat(ids(batch)).isEqualTo(List.of(2L));
+        assertThat(batch.missingIds()).isEqualTo(List.of(9L, 7L));
+    }
+
+    @Test
+    void batchLoadsOnlyWhatTheDetailCacheDoesNotHold() {
+        controller.getProductsByIds(List.of(1L, 2L));
+        int readsAfterFirst = products.reads();
+
+        ProductBatch cached = controller.getProductsByIds(List.of(2L, 1L));
+        assertThat(products.reads()).isEqualTo(readsAfterFirst);
+        assertThat(ids(cached)).isEqualTo(List.of(2L, 1L));
+
+        controller.getProductsByIds(List.of(1L, 3L));
+        assertThat(products.reads()).isEqualTo(readsAfterFirst + 1);
+    }
+
+    @Test
+    void batchAllowsAtMostOneHundredDistinctIds() {
+        List<Long> hundred = LongStream.rangeClosed(1, 100).boxed().toList();
+        assertThat(controller.getProductsByIds(hundred).missingIds().size()).isEqualTo(97);
+
+        // Duplicates are collapsed before the limit is checked.
+        List<Long> withRepeats = LongStream.rangeClosed(1, 150).map(id -> (id - 1) % 100 + 1).boxed().toList();
+        assertThat(controller.getProductsByIds(withRepeats).items().size()).isEqualTo(3);
+
+        List<Long> hundredAndOne = LongStream.rangeClosed(1, 101).boxed().toList();
+        assertThatThrownBy(() -> controller.getProductsByIds(hundredAndOne))
+            .isInstanceOfSatisfying(ResponseStatusException.class, e ->
+                assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    @Test
+    void idsAndCursorReachExactlyOneHandler() throws Exception {
+        RequestMappingHandlerMapping mapping = mapping();
+
+        assertThat(handler(mapping, "ids", "1")).isEqualTo("getProductsByIds");
+        assertThat(handler(mapping, "cursor", "")).isEqualTo("getProductsAfter");
+        assertThat(handler(mapping, "ids", "1", "cursor", "")).isEqualTo("rejectIdsWithCursor");
+        assertThat(handler(mapping)).isEqualTo("getAllProducts");
+        assertThatThrownBy(() -> controller.rejectIdsWithCursor())
+            .isInstanceOfSatisfying(ResponseStatusException.class, e ->
+                assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    private RequestMappingHandlerMapping mapping() {
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.getBeanFactory().registerSingleton("productController", controller);
+        context.refresh();
+        RequestMappingHandlerMapping mapping = new RequestMappingHandlerMapping();
+        mapping.setApplicationContext(context);
+        mapping.afterPropertiesSet();
+        return mapping;
+    }
+
+    private static String handler(RequestMappingHandlerMapping mapping, String... params) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products");
+        for (int i = 0; i < params.length; i += 2) {
+            request.setParameter(params[i], params[i + 1]);
+        }
+        return ((HandlerMethod) mapping.getHandler(request).getHandler()).getMethod().getName();
+    }
+
+    private static List<Long> ids(ProductBatch batch) {
+        return batch.items().stream().map(ProductDetailDto::id).toList();
+    }
+}
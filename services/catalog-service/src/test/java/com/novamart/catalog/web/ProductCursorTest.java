@@ -0,0 +1,97 @@
+package com.novamart.catalog.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.novamart.catalog.domain.Product;
+
+/**
+ * Cursor tokens round-trip for every sort key and reject anything they didn't produce with a 400.
+ */
+class ProductCursorTest {
+
+    @Test
+    void idCursorRoundTrips() {
+        ProductCursor cursor = ProductCursor.after(ProductCursor.SortKey.ID, product(42L, "Lamp", "19.99"));
+
+        assertThat(ProductCursor.decode(cursor.encode())).isEqualTo(new ProductCursor(ProductCursor.SortKey.ID, 42L, 42L));
+    }
+
+    @Test
+    void nameCursorRoundTripsNamesContainingTheSeparator() {
+        for (String name : new String[] {"Lamp | Desk", "|", "a||b|", "Caf\u00e9 \u2615", ""}) {
+            ProductCursor cursor = ProductCursor.after(ProductCursor.SortKey.NAME, product(7L, name, "1.00"));
+
+            ProductCursor decoded = ProductCursor.decode(cursor.encode());
+
+            assertThat(decoded.value()).isEqualTo(name);
+            assertThat(decoded.id()).isEqualTo(7L);
+        }
+    }
+
+    @Test
+    void priceCursorKeepsTheScale() {
+        ProductCursor cursor = ProductCursor.after(ProductCursor.SortKey.PRICE, product(3L, "Lamp", "19.90"));
+
+        ProductCursor decoded = ProductCursor.decode(cursor.encode());
+
+        assertThat(decoded.value()).isEqualTo(new BigDecimal("19.90"));
+        assertThat(decoded.id()).isEqualTo(3L);
+    }
+
+    @Test
+    void tokensAreUrlSafe() {
+        String token = ProductCursor.after(ProductCursor.SortKey.NAME, product(1L, "??>>~~", "1.00")).encode();
+
+        assertThat(token.matches("[A-Za-z0-9_-]+")).isTrue();
+    }
+
+    @Test
+    void scrollPositionSeeksPastTheSortValueAndId() {
+        ProductCursor byPrice = new ProductCursor(ProductCursor.SortKey.PRICE, new BigDecimal("5.00"), 9L);
+        ProductCursor byId = new ProductCursor(ProductCursor.SortKey.ID, 9L, 9L);
+
+        assertThat(byPrice.toScrollPosition().getKeys()).isEqualTo(Map.of("price", new BigDecimal("5.00"), "id", 9L));
+        assertThat(byId.toScrollPosition().getKeys()).isEqualTo(Map.of("id", 9L));
+        assertThat(ProductCursor.SortKey.NAME.sort()).isEqualTo(Sort.by("name").and(Sort.by("id")));
+    }
+
+    @Test
+    void malformedTokensAreBadRequests() {
+        for (String token : new String[] {"not base64!", raw("ID|"), raw("NAME"), raw("COLOR|x|1"), raw("PRICE|abc|1"), raw("ID||x")}) {
+            assertThatThrownBy(() -> ProductCursor.decode(token))
+                .isInstanceOfSatisfying(ResponseStatusException.class, e ->
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        }
+    }
+
+    @Test
+    void unknownSortKeysAreBadRequests() {
+        assertThat(ProductCursor.SortKey.from(" Price ")).isEqualTo(ProductCursor.SortKey.PRICE);
+        assertThatThrownBy(() -> ProductCursor.SortKey.from("rating"))
+            .isInstanceOfSatisfying(ResponseStatusException.class, e ->
+                assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+    }
+
+    private static String raw(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Product product(Long id, String name, String price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(new BigDecimal(price));
+        return product;
+    }
+}
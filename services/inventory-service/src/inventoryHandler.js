@@ -1,6 +1,6 @@
 import 'dotenv/config';
 import { DynamoDBClient } from '@aws-sdk/client-dynamodb';
-import { DynamoDBDocumentClient, GetCommand, UpdateCommand } from '@aws-sdk/lib-dynamodb';
+import { DeleteCommand, DynamoDBDocumentClient, GetCommand, PutCommand, UpdateCommand } from '@aws-sdk/lib-dynamodb';
 import { EventBridgeClient, PutEventsCommand } from '@aws-sdk/client-eventbridge';
 
 const dynamoConfig = {
@@ -27,6 +27,9 @@ const eventBridge = new EventBridgeClient(eventBridgeConfig);
 const INVENTORY_TABLE_NAME = process.env.INVENTORY_TABLE_NAME || 'inventory';
 const EVENT_BUS_NAME = process.env.EVENT_BUS_NAME || 'default';
 const EVENT_SOURCE = process.env.EVENT_SOURCE || 'novamart.inventory-service';
+// How long an order's reservation record is kept (DynamoDB TTL on expiresAt); redeliveries and retries
+// arrive within minutes.
+const RESERVATION_RECORD_TTL_SECONDS = Number(process.env.RESERVATION_RECORD_TTL_SECONDS || 86400);
 
 /**
  * Lambda handler for inventory reservation.
@@ -56,11 +59,180 @@ export const inventoryHandler = async (event) => {
     console.error('Invalid event.detail for inventory handler');
     return;
   }
+  // order-service reserves this order through POST /inventory/reserve; reserving it here too would take the stock twice.
+  if (order.inventoryReservedOverHttp === true) {
+    console.log(`Skipping orderId=${order.orderId}: reserved over HTTP`);
+    return;
+  }
+
+  await reserveOrder(order);
+};
+
+/**
+ * Batch reservation for the HTTP tier. Exported for the out-of-tree HTTP server, which is expected to route
+ * POST /inventory/reserve/batch here; no Lambda event in template.yaml invokes it.
+ *
+ * Expected event shape: { "orders": [ <order.placed detail>, ... ] }
+ * Orders are reserved concurrently (the conditional stock decrement keeps concurrent orders for the same
+ * product safe) and the response carries one result per order, with the status a single reserve call
+ * would have returned: 200 reserved, 409 not (fully) reserved, 202 still being reserved by an earlier call
+ * for the same orderId, 400 invalid, 500 failed.
+ *
+ * {
+ *   "results": [
+ *     { "orderId": "123", "status": 200 },
+ *     { "orderId": "124", "status": 409 }
+ *   ]
+ * }
+ */
+export const inventoryBatchHandler = async (event) => {
+  const orders = event && Array.isArray(event.orders) ? event.orders : null;
+  if (!orders) {
+    return {
+      statusCode: 400,
+      body: JSON.stringify({ message: 'orders must be an array' })
+    };
+  }
+
+  const results = await Promise.all(orders.map(async (order) => {
+    const orderId = order && order.orderId !== undefined ? String(order.orderId) : null;
+    if (!order || !Array.isArray(order.items)) {
+      return { orderId, status: 400 };
+    }
+    try {
+      const outcome = await reserveOrder(order);
+      if (outcome.inProgress) {
+        return { orderId, status: 202 };
+      }
+      return { orderId, status: outcome.fullyReserved ? 200 : 409 };
+    } catch (err) {
+      console.error(`Batch reservation failed for orderId=${orderId}`, err);
+      return { orderId, status: 500 };
+    }
+  }));
+
+  return {
+    statusCode: 200,
+    body: JSON.stringify({ results })
+  };
+};
+
+/**
+ * Reserves stock for one order.placed detail and publishes the resulting inventory events, at most once per
+ * orderId: a redelivered order.placed event or a repeated reserve call for an order that was already handled
+ * returns the recorded outcome without taking the stock or publishing again.
+ * Returns whether every item was reserved, or inProgress while another call still holds the order.
+ */
+async function reserveOrder(order) {
+  if (order.orderId === undefined || order.orderId === null) {
+    console.warn('Reserving an order without orderId; it cannot be deduplicated');
+    return reserveClaimedOrder(order, { stockTaken: false });
+  }
+
+  const orderId = String(order.orderId);
+  const prior = await claimReservation(orderId);
+  if (prior) {
+    console.log(`Skipping orderId=${orderId}: already ${prior.state === 'done' ? 'reserved' : 'being reserved'}`);
+    return prior.state === 'done' ? { fullyReserved: prior.fullyReserved === true } : { inProgress: true };
+  }
+
+  const progress = { stockTaken: false };
+  let outcome;
+  try {
+    outcome = await reserveClaimedOrder(order, progress);
+  } catch (err) {
+    if (progress.stockTaken) {
+      // Keep the claim: a retry must not take the stock again. The order needs reconciling by hand.
+      console.error(`Reservation for orderId=${orderId} failed after taking stock; needs reconciliation`);
+    } else {
+      await releaseReservation(orderId);
+    }
+    throw err;
+  }
+
+  await dynamodb.send(new UpdateCommand({
+    TableName: INVENTORY_TABLE_NAME,
+    Key: { productId: reservationKey(orderId) },
+    UpdateExpression: 'SET #state = :done, fullyReserved = :fullyReserved',
+    ExpressionAttributeNames: { '#state': 'state' },
+    ExpressionAttributeValues: { ':done': 'done', ':fullyReserved': outcome.fullyReserved }
+  }));
+  return outcome;
+}
+
+/**
+ * Key of an order's reservation record. It lives in the inventory table next to the stock items, under a
+ * prefix no product id uses.
+ */
+function reservationKey(orderId) {
+  return `order#${orderId}`;
+}
+
+/**
+ * Claims orderId with a conditional put of its reservation record. Returns null when this call claimed it,
+ * otherwise the record left by the call that did ({ state: 'pending' | 'done', fullyReserved }).
+ */
+async function claimReservation(orderId) {
+  try {
+    await dynamodb.send(new PutCommand({
+      TableName: INVENTORY_TABLE_NAME,
+      Item: {
+        productId: reservationKey(orderId),
+        state: 'pending',
+        expiresAt: Math.floor(Date.now() / 1000) + RESERVATION_RECORD_TTL_SECONDS
+      },
+      ConditionExpression: 'attribute_not_exists(productId)'
+    }));
+    return null;
+  } catch (err) {
+    if (err && err.name === 'ConditionalCheckFailedException') {
+      const { Item } = await dynamodb.send(new GetCommand({
+        TableName: INVENTORY_TABLE_NAME,
+        Key: { productId: reservationKey(orderId) },
+        ConsistentRead: true
+      }));
+      // Released between the put and the get: report it as in progress rather than racing the releaser.
+      return Item || { state: 'pending' };
+    }
+    throw err;
+  }
+}
+
+/**
+ * Drops the claim of a call that failed before taking any stock, so that a retry can reserve the order.
+ */
+async function releaseReservation(orderId) {
+  try {
+    await dynamodb.send(new DeleteCommand({
+      TableName: INVENTORY_TABLE_NAME,
+      Key: { productId: reservationKey(orderId) },
+      ConditionExpression: '#state = :pending',
+      ExpressionAttributeNames: { '#state': 'state' },
+      ExpressionAttributeValues: { ':pending': 'pending' }
+    }));
+  } catch (err) {
+    console.error(`Failed to release the reservation claim for orderId=${orderId}`, err);
+  }
+}
 
+async function reserveClaimedOrder(order, progress) {
   const customerId = order.customerId || order.userId || 'unknown';
   const userId = order.userId || order.customerId || 'unknown';
   const totalCents = order.totalCents;
 
+  // order-service already took the stock with a conditional write (atomic reservation mode); only confirm it.
+  if (order.inventoryReserved === true) {
+    const items = order.items.map((item) => ({ productId: String(item.productId), quantity: Number(item.quantity) }));
+    await publishInventoryEvent('inventory.reserved', {
+      orderId: order.orderId,
+      customerId,
+      userId,
+      totalCents,
+      items
+    });
+    return { fullyReserved: true };
+  }
+
   const unavailableItems = []; // items with insufficient stock discovered in first pass
   const updates = []; // candidates to decrement
 
@@ -109,6 +281,7 @@ export const inventoryHandler = async (event) => {
 
     try {
       await dynamodb.send(new UpdateCommand(updateParams));
+      progress.stockTaken = true;
       reservedItems.push({ productId: u.productId, quantity: u.quantity });
     } catch (err) {
       console.error(
@@ -170,7 +343,9 @@ export const inventoryHandler = async (event) => {
       items: updates
     });
   }
-};
+
+  return { fullyReserved: failedItems.length === 0 };
+}
 
 async function publishInventoryEvent(detailType, payload) {
   const params = {
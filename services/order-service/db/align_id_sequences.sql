@@ -0,0 +1,8 @@
+-- One-off step for databases created while orders/order_items used IDENTITY ids.
+-- Hibernate (ddl-auto: update) creates orders_seq and order_items_seq starting at 1; move them past
+-- the existing rows before the first order is placed with the new version. Safe to re-run.
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('orders_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM orders) + 50, (SELECT last_value FROM orders_seq)));
+SELECT setval('order_items_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM order_items) + 50, (SELECT last_value FROM order_items_seq)));
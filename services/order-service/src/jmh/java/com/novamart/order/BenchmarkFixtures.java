@@ -0,0 +1,93 @@
+package com.novamart.order;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.novamart.order.domain.Order;
+import com.novamart.order.domain.OrderItem;
+import com.novamart.order.domain.OrderStatus;
+import com.novamart.order.dto.CreateOrderItemRequest;
+import com.novamart.order.dto.CreateOrderRequest;
+import com.novamart.order.money.Money;
+import com.novamart.order.money.MoneyJsonComponent;
+
+/**
+ * Deterministic inputs shared by the order-service benchmarks.
+ */
+public final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * An ObjectMapper configured like the application's: java.time support, ISO dates, Money as a number.
+     */
+    public static ObjectMapper objectMapper() {
+        return JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .addModule(new SimpleModule()
+                .addSerializer(Money.class, new MoneyJsonComponent.Serializer())
+                .addDeserializer(Money.class, new MoneyJsonComponent.Deserializer()))
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    }
+
+    public static CreateOrderRequest createOrderRequest(int itemCount) {
+        List<CreateOrderItemRequest> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            CreateOrderItemRequest item = new CreateOrderItemRequest();
+            item.setProductId(1000L + i);
+            item.setProductSku(i % 2 == 0 ? " Laptop-" + (100 + i) + " " : null);
+            item.setQuantity(1 + i % 3);
+            item.setUnitPrice(Money.ofMinor(unitPriceCents(i)));
+            items.add(item);
+        }
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setCustomerId("customer-42");
+        request.setItems(items);
+        return request;
+    }
+
+    public static long[] unitPricesCents(int itemCount) {
+        long[] prices = new long[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            prices[i] = unitPriceCents(i);
+        }
+        return prices;
+    }
+
+    /**
+     * A saved-looking order: ids, status and creation time filled in as after the insert.
+     */
+    public static Order placedOrder(int itemCount) {
+        Order order = new Order();
+        order.setId(123456L);
+        order.setCustomerId("customer-42");
+        order.setStatus(OrderStatus.CREATED);
+        order.setCreatedAt(OffsetDateTime.of(2024, 5, 1, 12, 30, 0, 0, ZoneOffset.UTC));
+        long totalCents = 0;
+        for (int i = 0; i < itemCount; i++) {
+            OrderItem item = new OrderItem();
+            item.setId(1_000_000L + i);
+            item.setProductId(1000L + i);
+            item.setProductSku(i % 2 == 0 ? "laptop-" + (100 + i) : null);
+            item.setQuantity(1 + i % 3);
+            item.setUnitPrice(Money.ofMinor(unitPriceCents(i)));
+            order.addItem(item);
+            totalCents += unitPriceCents(i) * item.getQuantity();
+        }
+        order.setTotalAmount(Money.ofMinor(totalCents));
+        return order;
+    }
+
+    private static long unitPriceCents(int i) {
+        return 499 + 1_337L * i;
+    }
+}
@@ -0,0 +1,49 @@
+package com.novamart.order.events;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novamart.order.BenchmarkFixtures;
+import com.novamart.order.domain.Order;
+
+/**
+ * Building and serializing the order.placed detail, as done once per order in every delivery mode.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderPlacedPayloadBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int itemCount;
+
+    private ObjectMapper objectMapper;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        order = BenchmarkFixtures.placedOrder(itemCount);
+    }
+
+    @Benchmark
+    public String serializePayload() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new OrderPlacedPayload(order));
+    }
+}
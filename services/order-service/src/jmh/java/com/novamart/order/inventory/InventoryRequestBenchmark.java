@@ -0,0 +1,66 @@
+package com.novamart.order.inventory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novamart.order.BenchmarkFixtures;
+import com.novamart.order.domain.Order;
+import com.novamart.order.dto.CreateOrderItemRequest;
+
+/**
+ * Per-order work on the inventory side: normalizing item ids for the stock lookup and serializing the
+ * HTTP reserve request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class InventoryRequestBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int itemCount;
+
+    private ObjectMapper objectMapper;
+    private List<CreateOrderItemRequest> items;
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        items = BenchmarkFixtures.createOrderRequest(itemCount).getItems();
+        order = BenchmarkFixtures.placedOrder(itemCount);
+    }
+
+    @Benchmark
+    public void normalizeProductIds(Blackhole blackhole) {
+        for (CreateOrderItemRequest item : items) {
+            blackhole.consume(InventoryClient.normalizeInventoryProductId(item));
+        }
+    }
+
+    @Benchmark
+    public String serializeReserveRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(
+            new InventoryReservationHttpClient.InventoryReserveEvent(
+                new InventoryReservationHttpClient.InventoryReserveRequest(order)
+            )
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package com.novamart.order.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Money handling for one order, BigDecimal (as createOrder, the reserve request and the event payload did
+ * it before {@link Money}) against Money: parse the submitted unit prices, compute the total, convert the
+ * total to cents for the reserve request and render every amount for the event payload.
+ *
+ * Run with {@code -prof gc} (the profile's default) and compare {@code gc.alloc.rate.norm}, the bytes
+ * allocated per order.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderMoneyBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int itemCount;
+
+    private String[] unitPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        unitPrices = new String[itemCount];
+        quantities = new int[itemCount];
+        for (int i = 0; i < itemCount; i++) {
+            unitPrices[i] = (1 + random.nextInt(500)) + "." + (10 + random.nextInt(90));
+            quantities[i] = 1 + random.nextInt(4);
+        }
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole blackhole) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < itemCount; i++) {
+            BigDecimal unitPrice = new BigDecimal(unitPrices[i]);
+            total = total.add(unitPrice.multiply(BigDecimal.valueOf(quantities[i])));
+            blackhole.consume(unitPrice.toPlainString());
+        }
+        long totalCents = total.multiply(BigDecimal.valueOf(100)).setScale(0, RoundingMode.HALF_UP).longValue();
+        blackhole.consume(totalCents);
+        blackhole.consume(total.toPlainString());
+    }
+
+    @Benchmark
+    public void money(Blackhole blackhole) {
+        long totalCents = 0;
+        for (int i = 0; i < itemCount; i++) {
+            Money unitPrice = Money.parse(unitPrices[i]);
+            totalCents = Math.addExact(totalCents, Math.multiplyExact(unitPrice.minorUnits(), (long) quantities[i]));
+            blackhole.consume(unitPrice.toString());
+        }
+        Money total = Money.ofMinor(totalCents);
+        blackhole.consume(total.minorUnits());
+        blackhole.consume(total.toString());
+    }
+}
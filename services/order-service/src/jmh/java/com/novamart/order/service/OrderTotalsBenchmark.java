@@ -0,0 +1,48 @@
+package com.novamart.order.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.novamart.order.BenchmarkFixtures;
+import com.novamart.order.domain.Order;
+import com.novamart.order.dto.CreateOrderRequest;
+
+/**
+ * The CPU-only part of {@code OrderService.createOrder}: building the order graph and its total.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderTotalsBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int itemCount;
+
+    private CreateOrderRequest request;
+    private long[] unitPricesCents;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkFixtures.createOrderRequest(itemCount);
+        unitPricesCents = BenchmarkFixtures.unitPricesCents(itemCount);
+    }
+
+    @Benchmark
+    public Order buildOrder() {
+        return OrderService.buildOrder(request, unitPricesCents);
+    }
+}
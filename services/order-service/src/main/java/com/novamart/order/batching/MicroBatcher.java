@@ -0,0 +1,151 @@
+package com.novamart.order.batching;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Bounded queue of items from concurrent callers, drained in batches by a single thread.
+ *
+ * A batch is handed to {@code flush} as soon as it has {@code maxBatchSize} items or its first item has
+ * waited {@code linger} since it was queued, whichever comes first. {@code flush} runs on the drain thread:
+ * it should start the call and return, and a flush that blocks (e.g. waiting for an in-flight permit) holds
+ * back the next batch, which is how callers apply backpressure. Batch sizes and the wait added to the first
+ * item are recorded as {@code <metricPrefix>.batch.size} and {@code <metricPrefix>.batch.linger}.
+ */
+public class MicroBatcher<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBatcher.class);
+
+    private final BlockingQueue<Queued<T>> queue;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final Consumer<List<T>> flush;
+    private final Thread drainThread;
+    private volatile boolean running = true;
+
+    private final DistributionSummary batchSize;
+    private final Timer lingerTimer;
+
+    private record Queued<T>(T item, long enqueuedAtNanos) { }
+
+    public MicroBatcher(
+        String name,
+        int capacity,
+        int maxBatchSize,
+        Duration linger,
+        Consumer<List<T>> flush,
+        MeterRegistry meterRegistry,
+        String metricPrefix
+    ) {
+        this.queue = new LinkedBlockingQueue<>(Math.max(1, capacity));
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.lingerNanos = linger.toNanos();
+        this.flush = flush;
+
+        this.batchSize = DistributionSummary.builder(metricPrefix + ".batch.size")
+            .description("Items per batch")
+            .publishPercentileHistogram()
+            .minimumExpectedValue(1.0)
+            .maximumExpectedValue((double) this.maxBatchSize)
+            .register(meterRegistry);
+        this.lingerTimer = Timer.builder(metricPrefix + ".batch.linger")
+            .description("Time the first item of a batch waited before the batch was flushed")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+
+        this.drainThread = new Thread(this::drain, name);
+        this.drainThread.setDaemon(true);
+        this.drainThread.start();
+    }
+
+    /**
+     * Queues an item for the next batch; returns false when the queue is full or the batcher is closed.
+     */
+    public boolean offer(T item) {
+        return running && queue.offer(new Queued<>(item, System.nanoTime()));
+    }
+
+    /**
+     * Same as {@link #offer(Object)}, waiting up to {@code timeout} for room.
+     */
+    public boolean offer(T item, Duration timeout) throws InterruptedException {
+        return running && queue.offer(new Queued<>(item, System.nanoTime()), timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Queues an item that was already flushed once (a retry). Unlike {@link #offer(Object)} this is still
+     * accepted while {@link #close} drains the queue.
+     */
+    public boolean requeue(T item) {
+        return drainThread.isAlive() && queue.offer(new Queued<>(item, System.nanoTime()));
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting items and flushes what is queued, waiting at most {@code timeout}. Returns the number
+     * of items left unflushed.
+     */
+    public int close(Duration timeout) {
+        running = false;
+        try {
+            drainThread.join(timeout.toMillis());
+            if (drainThread.isAlive()) {
+                drainThread.interrupt();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int left = queue.size();
+        if (left > 0) {
+            log.warn("{} stopped with {} items still queued", drainThread.getName(), left);
+        }
+        return left;
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            try {
+                Queued<T> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<T> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first.item());
+                long deadline = first.enqueuedAtNanos() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Queued<T> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next.item());
+                }
+
+                batchSize.record(batch.size());
+                lingerTimer.record(System.nanoTime() - first.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+                flush.accept(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("{} failed to flush a batch", drainThread.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.novamart.order.config;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import software.amazon.awssdk.awscore.client.builder.AwsAsyncClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsClientBuilder;
+import software.amazon.awssdk.awscore.client.builder.AwsSyncClientBuilder;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryMode;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+
+/**
+ * Shared settings for every AWS SDK client in the service.
+ *
+ * All sync clients share one Apache connection pool, and all async clients share one Netty client. On
+ * platform threads each request thread holds at most one AWS connection at a time, so by default the pool
+ * is sized to the Tomcat thread count plus a few connections for background work, and a request thread
+ * only waits for a connection when background work holds more than its share. With virtual threads the
+ * Tomcat thread count bounds nothing, so the pool should be sized with {@code max-connections}; without it
+ * the pool gets {@link #VIRTUAL_THREAD_CONNECTIONS} and callers beyond that wait up to
+ * {@code connection-acquisition-timeout-ms} for a connection, then fail. Idle connections are kept long
+ * enough to be reused between bursts rather than reopened. Clients also share the attempt and call
+ * timeouts, the retry policy and a {@link MicrometerMetricPublisher}.
+ */
+@Component
+public class AwsClients {
+
+    private static final Logger log = LoggerFactory.getLogger(AwsClients.class);
+
+    /**
+     * Connections on top of the request threads, for the outbox relay, shard rebalancing and the async
+     * event sender's fallback.
+     */
+    private static final int BACKGROUND_CONNECTIONS = 16;
+
+    /**
+     * Pool size on virtual threads when {@code max-connections} is not set.
+     */
+    static final int VIRTUAL_THREAD_CONNECTIONS = 256;
+
+    private final Region region;
+    private final SdkHttpClient httpClient;
+    private final int asyncMaxConcurrency;
+    private final Duration connectionTimeout;
+    private final Duration connectionAcquisitionTimeout;
+    private final Duration connectionMaxIdleTime;
+    private final ClientOverrideConfiguration overrides;
+    private SdkAsyncHttpClient asyncHttpClient;
+
+    public AwsClients(
+        @Value("${aws.region}") String region,
+        @Value("${server.tomcat.threads.max:200}") int tomcatMaxThreads,
+        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+        @Value("${novamart.aws.http.max-connections:0}") int maxConnections,
+        @Value("${novamart.aws.http.connection-timeout-ms:1000}") long connectionTimeoutMs,
+        @Value("${novamart.aws.http.socket-timeout-ms:5000}") long socketTimeoutMs,
+        @Value("${novamart.aws.http.connection-acquisition-timeout-ms:1000}") long connectionAcquisitionTimeoutMs,
+        @Value("${novamart.aws.http.connection-max-idle-ms:50000}") long connectionMaxIdleMs,
+        @Value("${novamart.aws.http.async-max-concurrency:128}") int asyncMaxConcurrency,
+        @Value("${novamart.aws.api-call-attempt-timeout-ms:2000}") long apiCallAttemptTimeoutMs,
+        @Value("${novamart.aws.api-call-timeout-ms:5000}") long apiCallTimeoutMs,
+        @Value("${novamart.aws.max-retries:3}") int maxRetries,
+        @Value("${novamart.aws.metrics.enabled:true}") boolean metricsEnabled,
+        MeterRegistry meterRegistry
+    ) {
+        this.region = Region.of(region);
+        this.asyncMaxConcurrency = Math.max(1, asyncMaxConcurrency);
+        this.connectionTimeout = Duration.ofMillis(connectionTimeoutMs);
+        this.connectionAcquisitionTimeout = Duration.ofMillis(connectionAcquisitionTimeoutMs);
+        this.connectionMaxIdleTime = Duration.ofMillis(connectionMaxIdleMs);
+
+        int poolSize = poolSize(maxConnections, tomcatMaxThreads, virtualThreads);
+        this.httpClient = ApacheHttpClient.builder()
+            .maxConnections(poolSize)
+            .connectionTimeout(connectionTimeout)
+            .socketTimeout(Duration.ofMillis(socketTimeoutMs))
+            .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+            .connectionMaxIdleTime(connectionMaxIdleTime)
+            .tcpKeepAlive(true)
+            .useIdleConnectionReaper(true)
+            .build();
+
+        ClientOverrideConfiguration.Builder overrides = ClientOverrideConfiguration.builder()
+            .apiCallAttemptTimeout(Duration.ofMillis(apiCallAttemptTimeoutMs))
+            .apiCallTimeout(Duration.ofMillis(apiCallTimeoutMs))
+            .retryPolicy(RetryPolicy.builder(RetryMode.STANDARD).numRetries(Math.max(0, maxRetries)).build());
+        if (metricsEnabled) {
+            overrides.addMetricPublisher(new MicrometerMetricPublisher(meterRegistry));
+        }
+        this.overrides = overrides.build();
+
+        log.info("AWS SDK clients share a pool of {} connections (attempt timeout {} ms, {} retries)",
+            poolSize, apiCallAttemptTimeoutMs, maxRetries);
+    }
+
+    static int poolSize(int maxConnections, int tomcatMaxThreads, boolean virtualThreads) {
+        if (maxConnections > 0) {
+            return maxConnections;
+        }
+        if (virtualThreads) {
+            log.warn("Virtual threads are enabled but novamart.aws.http.max-connections is not set; "
+                + "the AWS connection pool gets {} connections and callers beyond that wait for one", VIRTUAL_THREAD_CONNECTIONS);
+            return VIRTUAL_THREAD_CONNECTIONS;
+        }
+        return tomcatMaxThreads + BACKGROUND_CONNECTIONS;
+    }
+
+    /**
+     * Applies the region, the shared connection pool and the shared overrides to a sync client builder,
+     * and the endpoint when one is configured (LocalStack, DynamoDB Local).
+     */
+    public <B extends AwsClientBuilder<B, ?> & AwsSyncClientBuilder<B, ?>> B sync(B builder, String endpoint) {
+        builder.region(region)
+            .httpClient(httpClient)
+            .overrideConfiguration(overrides);
+        return withEndpoint(builder, endpoint);
+    }
+
+    /**
+     * Same as {@link #sync} for async client builders, on the shared Netty client.
+     */
+    public <B extends AwsClientBuilder<B, ?> & AwsAsyncClientBuilder<B, ?>> B async(B builder, String endpoint) {
+        builder.region(region)
+            .httpClient(asyncHttpClient())
+            .overrideConfiguration(overrides);
+        return withEndpoint(builder, endpoint);
+    }
+
+    /**
+     * The shared overrides, for clients that need to adjust them (e.g. a tighter call deadline).
+     */
+    public ClientOverrideConfiguration overrides() {
+        return overrides;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        httpClient.close();
+        if (asyncHttpClient != null) {
+            asyncHttpClient.close();
+        }
+    }
+
+    private synchronized SdkAsyncHttpClient asyncHttpClient() {
+        // Only built once an async client asks for it, so sync-only setups start no Netty threads.
+        if (asyncHttpClient == null) {
+            asyncHttpClient = NettyNioAsyncHttpClient.builder()
+                .maxConcurrency(asyncMaxConcurrency)
+                .connectionTimeout(connectionTimeout)
+                .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                .connectionMaxIdleTime(connectionMaxIdleTime)
+                .tcpKeepAlive(true)
+                .useIdleConnectionReaper(true)
+                .build();
+        }
+        return asyncHttpClient;
+    }
+
+    private static <B extends AwsClientBuilder<B, ?>> B withEndpoint(B builder, String endpoint) {
+        if (endpoint != null && !endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,120 @@
+package com.novamart.order.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+
+/**
+ * Turns the AWS SDK's per-call metrics into Micrometer meters:
+ * <ul>
+ *   <li>{@code novamart.aws.api_call{service,operation,outcome}}: call duration including retries;</li>
+ *   <li>{@code novamart.aws.api_call.retries{service,operation}}: retried attempts;</li>
+ *   <li>{@code novamart.aws.http.acquire{client}}: time spent waiting for a pooled connection;</li>
+ *   <li>{@code novamart.aws.http.leased{client}} and {@code .pending{client}}: connections in use and
+ *       callers queued for one, as of the last call.</li>
+ * </ul>
+ * The SDK publishes on the calling thread after every call, so this only does map lookups and updates.
+ */
+final class MicrometerMetricPublisher implements MetricPublisher {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> callTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> retryCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> leased = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    MicrometerMetricPublisher(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void publish(MetricCollection apiCall) {
+        String service = first(apiCall.metricValues(CoreMetric.SERVICE_ID), "unknown");
+        String operation = first(apiCall.metricValues(CoreMetric.OPERATION_NAME), "unknown");
+        boolean successful = first(apiCall.metricValues(CoreMetric.API_CALL_SUCCESSFUL), false);
+
+        Duration duration = first(apiCall.metricValues(CoreMetric.API_CALL_DURATION), null);
+        if (duration != null) {
+            String outcome = successful ? "success" : "failure";
+            callTimers.computeIfAbsent(service + '|' + operation + '|' + outcome, key ->
+                Timer.builder("novamart.aws.api_call")
+                    .description("AWS SDK API calls, including retries")
+                    .tag("service", service)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+            ).record(duration);
+        }
+
+        int retries = first(apiCall.metricValues(CoreMetric.RETRY_COUNT), 0);
+        if (retries > 0) {
+            retryCounters.computeIfAbsent(service + '|' + operation, key ->
+                Counter.builder("novamart.aws.api_call.retries")
+                    .description("AWS SDK attempts retried after a failed attempt")
+                    .tag("service", service)
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+            ).increment(retries);
+        }
+
+        apiCall.childrenWithName("ApiCallAttempt")
+            .flatMap(attempt -> attempt.childrenWithName("HttpClient"))
+            .forEach(this::publishHttpClient);
+    }
+
+    private void publishHttpClient(MetricCollection httpClient) {
+        String client = first(httpClient.metricValues(HttpMetric.HTTP_CLIENT_NAME), "unknown");
+
+        Duration acquire = first(httpClient.metricValues(HttpMetric.CONCURRENCY_ACQUIRE_DURATION), null);
+        if (acquire != null) {
+            acquireTimers.computeIfAbsent(client, key ->
+                Timer.builder("novamart.aws.http.acquire")
+                    .description("Time AWS SDK calls waited for a pooled connection")
+                    .tag("client", client)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+            ).record(acquire);
+        }
+
+        Integer leasedNow = first(httpClient.metricValues(HttpMetric.LEASED_CONCURRENCY), null);
+        if (leasedNow != null) {
+            gauge(leased, "novamart.aws.http.leased", "AWS SDK connections in use", client).set(leasedNow);
+        }
+        Integer pendingNow = first(httpClient.metricValues(HttpMetric.PENDING_CONCURRENCY_ACQUIRES), null);
+        if (pendingNow != null) {
+            gauge(pending, "novamart.aws.http.pending", "AWS SDK calls waiting for a connection", client).set(pendingNow);
+        }
+    }
+
+    private AtomicInteger gauge(Map<String, AtomicInteger> gauges, String name, String description, String client) {
+        return gauges.computeIfAbsent(client, key -> {
+            AtomicInteger value = new AtomicInteger();
+            Gauge.builder(name, value, AtomicInteger::get)
+                .description(description)
+                .tag("client", client)
+                .register(meterRegistry);
+            return value;
+        });
+    }
+
+    private static <T> T first(List<T> values, T fallback) {
+        return values.isEmpty() ? fallback : values.get(0);
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,135 @@
+package com.novamart.order.diagnostics;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, which is what limits virtual-thread
+ * mode: a virtual thread that blocks inside a {@code synchronized} block (or a native frame) holds its
+ * carrier, and with only one carrier per core a few pinned JDBC, HTTP or SDK calls stall every request.
+ *
+ * Listens to the JFR {@code jdk.VirtualThreadPinned} event in-process. Each pin longer than the threshold is
+ * timed under the first frame outside the JDK (the driver or library that blocked), and the first stack
+ * seen for each such frame is logged once. Only runs when virtual threads are enabled on JDK 21 or later.
+ */
+@Component
+public class VirtualThreadPinningMonitor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_FRAME_TAGS = 50;
+    private static final int LOGGED_STACK_DEPTH = 12;
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> seenFrames = ConcurrentHashMap.newKeySet();
+    private volatile RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+        @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+        @Value("${novamart.virtual-threads.pinning-monitor.enabled:${ORDER_PINNING_MONITOR_ENABLED:true}}") boolean monitorEnabled,
+        @Value("${novamart.virtual-threads.pinning-monitor.threshold-ms:20}") long thresholdMs,
+        MeterRegistry meterRegistry
+    ) {
+        this.enabled = virtualThreadsEnabled && monitorEnabled;
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled is set but the JVM is {}; virtual threads need JDK 21+",
+                Runtime.version());
+            return;
+        }
+
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::record);
+            recording.startAsync();
+            stream = recording;
+            log.info("Watching for virtual threads pinned longer than {} ms", threshold.toMillis());
+        } catch (RuntimeException e) {
+            log.warn("Could not start virtual thread pinning monitor: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String frame = blockingFrame(frames);
+        // Tags are capped so an unexpected variety of stacks cannot blow up the metric's cardinality.
+        boolean firstSighting = seenFrames.size() < MAX_FRAME_TAGS && seenFrames.add(frame);
+        String tag = seenFrames.contains(frame) ? frame : "other";
+
+        Timer.builder("novamart.jvm.virtual_thread.pinned")
+            .description("Virtual threads that blocked while pinned to their carrier thread")
+            .tag("frame", tag)
+            .register(meterRegistry)
+            .record(event.getDuration());
+
+        if (firstSighting) {
+            log.warn(
+                "Virtual thread pinned for {} ms in {}:\n\t{}",
+                event.getDuration().toMillis(),
+                frame,
+                frames.stream()
+                    .limit(LOGGED_STACK_DEPTH)
+                    .map(VirtualThreadPinningMonitor::describe)
+                    .collect(Collectors.joining("\n\t"))
+            );
+        }
+    }
+
+    /**
+     * The first frame outside the JDK: the code that entered the monitor or native call and then blocked.
+     */
+    private static String blockingFrame(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return frames.isEmpty() ? "unknown" : describeMethod(frames.get(0));
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return describeMethod(frame) + ":" + frame.getLineNumber();
+    }
+
+    private static String describeMethod(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+}
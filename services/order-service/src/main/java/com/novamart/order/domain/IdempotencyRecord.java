@@ -0,0 +1,107 @@
+package com.novamart.order.domain;
+
+import java.time.OffsetDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+/**
+ * JPA entity remembering the response to an order created with an Idempotency-Key.
+ *
+ * The id is the customer id and the client's key; it is written in the same transaction as the order, so
+ * the primary key is what stops two replicas from creating the same order twice. The id is assigned by
+ * the caller, so the entity reports itself as new until it has been persisted or loaded; that makes
+ * {@code save} insert (and fail on a duplicate) instead of merging into an existing row.
+ */
+@Entity
+@Table(
+    name = "order_idempotency_keys",
+    indexes = @Index(name = "idx_order_idempotency_keys_created", columnList = "created_at")
+)
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(length = 200)
+    private String id;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Transient
+    private boolean isNew = true;
+
+    @PrePersist
+    public void prePersist() {
+        this.createdAt = OffsetDateTime.now();
+    }
+
+    @PostPersist
+    @PostLoad
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    public String getRequestHash() {
+        return requestHash;
+    }
+
+    public void setRequestHash(String requestHash) {
+        this.requestHash = requestHash;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public void setResponseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(OffsetDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
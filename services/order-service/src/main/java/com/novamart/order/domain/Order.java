@@ -1,33 +1,47 @@
 package com.novamart.order.domain;
 
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.novamart.order.money.Money;
+import com.novamart.order.money.MoneyConverter;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 /**
  * JPA entity representing an order aggregate.
  */
 @Entity
-@Table(name = "orders")
+@Table(
+    name = "orders",
+    indexes = {
+        // Backs the keyset-paginated listings (newest first), per customer and across all customers.
+        @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at, id"),
+        @Index(name = "idx_orders_created", columnList = "created_at, id")
+    }
+)
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 64)
@@ -38,7 +52,8 @@ public class Order {
     private OrderStatus status;
 
     @Column(nullable = false, precision = 12, scale = 2)
-    private BigDecimal totalAmount;
+    @Convert(converter = MoneyConverter.class)
+    private Money totalAmount;
 
     @Column(nullable = false)
     private OffsetDateTime createdAt;
@@ -47,6 +62,22 @@ public class Order {
     @JsonManagedReference
     private List<OrderItem> items = new ArrayList<>();
 
+    /**
+     * Set when order-service already took the stock (atomic reservation mode); carried on order.placed so
+     * inventory-service does not reserve it again. Not persisted.
+     */
+    @Transient
+    @JsonIgnore
+    private boolean inventoryReserved;
+
+    /**
+     * Set when inventory-service is asked to reserve the stock over HTTP after the commit; carried on
+     * order.placed so the event consumer skips the order. Not persisted.
+     */
+    @Transient
+    @JsonIgnore
+    private boolean inventoryReservedOverHttp;
+
     @PrePersist
     public void prePersist() {
         this.createdAt = OffsetDateTime.now();
@@ -84,11 +115,11 @@ public class Order {
         this.status = status;
     }
 
-    public BigDecimal getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(BigDecimal totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -107,5 +138,20 @@ public class Order {
     public void setItems(List<OrderItem> items) {
         this.items = items;
     }
-}
 
+    public boolean isInventoryReserved() {
+        return inventoryReserved;
+    }
+
+    public void setInventoryReserved(boolean inventoryReserved) {
+        this.inventoryReserved = inventoryReserved;
+    }
+
+    public boolean isInventoryReservedOverHttp() {
+        return inventoryReservedOverHttp;
+    }
+
+    public void setInventoryReservedOverHttp(boolean inventoryReservedOverHttp) {
+        this.inventoryReservedOverHttp = inventoryReservedOverHttp;
+    }
+}
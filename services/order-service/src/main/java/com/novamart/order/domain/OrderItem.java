@@ -1,14 +1,17 @@
 package com.novamart.order.domain;
 
-import java.math.BigDecimal;
+import com.novamart.order.money.Money;
+import com.novamart.order.money.MoneyConverter;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
@@ -20,7 +23,8 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(optional = false)
@@ -38,7 +42,8 @@ public class OrderItem {
     private Integer quantity;
 
     @Column(nullable = false, precision = 12, scale = 2)
-    private BigDecimal unitPrice;
+    @Convert(converter = MoneyConverter.class)
+    private Money unitPrice;
 
     public Long getId() {
         return id;
@@ -80,11 +85,11 @@ public class OrderItem {
         this.quantity = quantity;
     }
 
-    public BigDecimal getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(BigDecimal unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
     }
 }
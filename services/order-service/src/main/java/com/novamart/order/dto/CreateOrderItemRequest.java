@@ -1,6 +1,6 @@
 package com.novamart.order.dto;
 
-import java.math.BigDecimal;
+import com.novamart.order.money.Money;
 
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -22,8 +22,11 @@ public class CreateOrderItemRequest {
     @Min(1)
     private Integer quantity;
 
-    @NotNull
-    private BigDecimal unitPrice;
+    /**
+     * Price the client showed the customer. Required unless server-side pricing is enabled, in which case
+     * it is optional and only checked against the catalog price.
+     */
+    private Money unitPrice;
 
     public Long getProductId() {
         return productId;
@@ -49,11 +52,11 @@ public class CreateOrderItemRequest {
         this.quantity = quantity;
     }
 
-    public BigDecimal getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
 
-    public void setUnitPrice(BigDecimal unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
         this.unitPrice = unitPrice;
     }
 }
@@ -0,0 +1,15 @@
+package com.novamart.order.dto;
+
+import com.novamart.order.money.Money;
+
+/**
+ * Read model for an item within an order response.
+ */
+public record OrderItemView(
+    Long id,
+    Long productId,
+    String productSku,
+    Integer quantity,
+    Money unitPrice
+) {
+}
@@ -0,0 +1,9 @@
+package com.novamart.order.dto;
+
+import java.util.List;
+
+/**
+ * One page of an order listing. {@code nextCursor} is null on the last page.
+ */
+public record OrderPage(List<OrderView> items, String nextCursor) {
+}
@@ -0,0 +1,21 @@
+package com.novamart.order.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import com.novamart.order.domain.OrderStatus;
+import com.novamart.order.money.Money;
+
+/**
+ * Read model for order responses. Serializes to the same JSON as the Order entity without going
+ * through managed entities.
+ */
+public record OrderView(
+    Long id,
+    String customerId,
+    OrderStatus status,
+    Money totalAmount,
+    OffsetDateTime createdAt,
+    List<OrderItemView> items
+) {
+}
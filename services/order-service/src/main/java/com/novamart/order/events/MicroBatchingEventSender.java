@@ -0,0 +1,216 @@
+package com.novamart.order.events;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.novamart.order.batching.MicroBatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import software.amazon.awssdk.services.eventbridge.EventBridgeAsyncClient;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequest;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResultEntry;
+
+/**
+ * Bounded in-memory queue in front of EventBridge, drained by a single sender thread ({@link MicroBatcher}).
+ *
+ * The sender flushes a PutEvents call as soon as it has {@code maxBatchSize} entries or the oldest queued
+ * entry has waited {@code linger}, whichever comes first. Calls go out on the async client with at most
+ * {@code maxInFlight} outstanding (the sender thread waits for a free slot). Entries EventBridge rejects are
+ * requeued after {@code retryBackoff}, doubling per attempt, and counted as failed after the third attempt;
+ * retries still waiting out their backoff when the sender is closed are counted as failed too. What happens
+ * when the queue is full is decided by the {@link OverflowPolicy}.
+ */
+class MicroBatchingEventSender implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(MicroBatchingEventSender.class);
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    enum OverflowPolicy {
+        /** Wait up to the block timeout for room, then drop. */
+        BLOCK,
+        /** Drop immediately and count it. */
+        DROP,
+        /** Send the event synchronously on the caller's thread. */
+        SYNC
+    }
+
+    private final EventBridgeAsyncClient client;
+    private final MicroBatcher<Pending> batcher;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration blockTimeout;
+    private final Duration drainTimeout;
+    private final Duration retryBackoff;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final Consumer<PutEventsRequestEntry> syncFallback;
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter dropped;
+    private final Counter fallbacks;
+
+    MicroBatchingEventSender(
+        EventBridgeAsyncClient client,
+        int capacity,
+        int maxBatchSize,
+        Duration linger,
+        int maxInFlight,
+        OverflowPolicy overflowPolicy,
+        Duration blockTimeout,
+        Duration drainTimeout,
+        Duration retryBackoff,
+        Consumer<PutEventsRequestEntry> syncFallback,
+        MeterRegistry meterRegistry
+    ) {
+        this.client = client;
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = blockTimeout;
+        this.drainTimeout = drainTimeout;
+        this.retryBackoff = retryBackoff;
+        this.syncFallback = syncFallback;
+
+        this.sent = eventCounter(meterRegistry, "sent");
+        this.failed = eventCounter(meterRegistry, "failed");
+        this.dropped = eventCounter(meterRegistry, "dropped");
+        this.fallbacks = eventCounter(meterRegistry, "sync_fallback");
+
+        this.batcher = new MicroBatcher<>(
+            "order-events-sender", capacity, maxBatchSize, linger, this::send, meterRegistry, "novamart.events.async"
+        );
+        Gauge.builder("novamart.events.async.queue.size", batcher, MicroBatcher::size)
+            .description("Events waiting for the async EventBridge sender")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queues an entry for sending. Only blocks under the {@link OverflowPolicy#BLOCK} policy, and only for
+     * the configured block timeout.
+     */
+    void submit(PutEventsRequestEntry entry) {
+        Pending pending = new Pending(entry, 1);
+        if (batcher.offer(pending)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    if (batcher.offer(pending, blockTimeout)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                dropped.increment();
+                log.warn("Async event queue full for {} ms, dropping event", blockTimeout.toMillis());
+            }
+            case DROP -> {
+                dropped.increment();
+                log.warn("Async event queue full, dropping event");
+            }
+            case SYNC -> {
+                fallbacks.increment();
+                syncFallback.accept(entry);
+            }
+        }
+    }
+
+    /**
+     * Stops accepting events and sends what is still queued, waiting at most the drain timeout.
+     */
+    @Override
+    public void close() {
+        batcher.close(drainTimeout);
+        try {
+            if (!inFlight.tryAcquire(maxInFlight, drainTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Async event sender stopped with PutEvents calls still in flight");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Runs on the batcher's thread, which waits here while {@code maxInFlight} calls are outstanding.
+     */
+    private void send(List<Pending> batch) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.increment(batch.size());
+            log.warn("Async event sender interrupted, dropping {} events", batch.size());
+            return;
+        }
+
+        PutEventsRequest request = PutEventsRequest.builder()
+            .entries(batch.stream().map(Pending::entry).toList())
+            .build();
+
+        client.putEvents(request).whenComplete((response, error) -> {
+            try {
+                if (error != null) {
+                    log.warn("Async PutEvents failed for {} events", batch.size(), error);
+                    batch.forEach(this::retryOrFail);
+                    return;
+                }
+
+                List<PutEventsResultEntry> results = response.entries();
+                for (int i = 0; i < batch.size(); i++) {
+                    PutEventsResultEntry result = i < results.size() ? results.get(i) : null;
+                    if (result != null && result.errorCode() == null) {
+                        sent.increment();
+                    } else {
+                        retryOrFail(batch.get(i));
+                    }
+                }
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /**
+     * Runs on the SDK's completion thread, so the backoff is waited out on a delayed executor rather than
+     * here or on the sender thread.
+     */
+    private void retryOrFail(Pending pending) {
+        if (pending.attempt() >= MAX_ATTEMPTS) {
+            giveUp(pending);
+            return;
+        }
+        Pending retry = new Pending(pending.entry(), pending.attempt() + 1);
+        long delayMs = retryBackoff.toMillis() << (pending.attempt() - 1);
+        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS).execute(() -> {
+            if (!batcher.requeue(retry)) {
+                giveUp(pending);
+            }
+        });
+    }
+
+    private void giveUp(Pending pending) {
+        failed.increment();
+        log.error("Giving up on event after {} attempts: {}", pending.attempt(), pending.entry().detail());
+    }
+
+    private static Counter eventCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("novamart.events.async")
+            .description("Events handled by the async EventBridge sender by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private record Pending(PutEventsRequestEntry entry, int attempt) { }
+}
@@ -0,0 +1,313 @@
+package com.novamart.order.events;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.novamart.order.domain.OutboxEvent;
+import com.novamart.order.repository.OutboxEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResponse;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResultEntry;
+
+/**
+ * Drains the order outbox into EventBridge.
+ *
+ * Each pass claims a page of due events in a short transaction (Postgres advisory lock plus a claim lease
+ * on the rows, so only one replica relays at a time), sends it with no transaction or connection held, and
+ * then deletes the delivered rows and records the failures in a second short transaction. Events for a
+ * customer leave in insert order: each PutEvents call carries at most one event per customer, and while a
+ * customer's event is failing or waiting for its retry the rest of their events wait too. A failed event is
+ * retried with exponential backoff; after {@code max-attempts} it is parked so the customer's later events
+ * can go out. A relay that dies mid-pass leaves its page claimed until the lease expires, and the page is
+ * then sent again (delivery is at least once).
+ */
+@Component
+@Conditional(OrderOutboxRelay.OutboxDelivery.class)
+public class OrderOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderOutboxRelay.class);
+
+    /**
+     * EventBridge accepts at most 10 entries per PutEvents call.
+     */
+    private static final int MAX_ENTRIES_PER_PUT = 10;
+    private static final long ADVISORY_LOCK_KEY = 0x6f7574626f78L;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OrderPlacedEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final int maxAttempts;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final Duration claimLease;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter published;
+    private final Counter failed;
+    private final Counter parked;
+
+    /**
+     * Matches {@code novamart.events.delivery=outbox} in any casing, like {@link OrderPlacedEventPublisher}
+     * parses it, so the relay exists whenever outbox rows are being written.
+     */
+    static class OutboxDelivery implements Condition {
+        @Override
+        public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+            String delivery = context.getEnvironment().getProperty("novamart.events.delivery", "direct");
+            return OrderPlacedEventPublisher.Delivery.OUTBOX.name().equalsIgnoreCase(delivery.trim());
+        }
+    }
+
+    private record Pass(List<OutboxEvent> delivered, List<OutboxEvent> failed) { }
+
+    public OrderOutboxRelay(
+        OutboxEventRepository outboxEventRepository,
+        OrderPlacedEventPublisher eventPublisher,
+        TransactionTemplate transactionTemplate,
+        JdbcTemplate jdbcTemplate,
+        MeterRegistry meterRegistry,
+        @Value("${novamart.events.outbox.fetch-size:100}") int fetchSize,
+        @Value("${novamart.events.outbox.max-attempts:10}") int maxAttempts,
+        @Value("${novamart.events.outbox.retry-backoff-base-ms:1000}") long backoffBaseMs,
+        @Value("${novamart.events.outbox.retry-backoff-max-ms:300000}") long backoffMaxMs,
+        @Value("${novamart.events.outbox.claim-lease-ms:120000}") long claimLeaseMs
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = Math.max(MAX_ENTRIES_PER_PUT, fetchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBase = Duration.ofMillis(Math.max(1, backoffBaseMs));
+        this.backoffMax = Duration.ofMillis(Math.max(backoffBaseMs, backoffMaxMs));
+        this.claimLease = Duration.ofMillis(claimLeaseMs);
+
+        Gauge.builder("novamart.events.outbox.lag", lagMillis, value -> value.get() / 1000.0)
+            .description("Age of the oldest event still waiting in the outbox")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        this.published = Counter.builder("novamart.events.outbox.published")
+            .description("Outbox events accepted by EventBridge")
+            .register(meterRegistry);
+        this.failed = Counter.builder("novamart.events.outbox.failed")
+            .description("Outbox event deliveries rejected by EventBridge or failed in transit")
+            .register(meterRegistry);
+        this.parked = Counter.builder("novamart.events.outbox.parked")
+            .description("Outbox events given up on after max-attempts and parked")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${novamart.events.outbox.poll-interval-ms:500}")
+    public void relay() {
+        try {
+            boolean more;
+            do {
+                more = drainOnce();
+            } while (more);
+        } catch (Exception e) {
+            log.error("Outbox relay pass failed", e);
+        } finally {
+            updateLag();
+        }
+    }
+
+    /**
+     * Relays one page of the outbox. Returns true when the page was full and fully delivered, meaning
+     * another page is probably waiting.
+     */
+    boolean drainOnce() {
+        List<OutboxEvent> page = transactionTemplate.execute(status -> claimPage());
+        if (page == null || page.isEmpty()) {
+            return false;
+        }
+
+        Pass pass = send(page);
+        transactionTemplate.executeWithoutResult(status -> finish(page, pass));
+        return pass.failed().isEmpty() && pass.delivered().size() == fetchSize;
+    }
+
+    /**
+     * Claims the oldest due events unless another relay pass holds a live claim. Runs in its own short
+     * transaction; the advisory lock only serializes the claim itself.
+     */
+    private List<OutboxEvent> claimPage() {
+        Boolean locked = jdbcTemplate.queryForObject(
+            "select pg_try_advisory_xact_lock(?)",
+            Boolean.class,
+            ADVISORY_LOCK_KEY
+        );
+        if (!Boolean.TRUE.equals(locked)) {
+            return List.of();
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        if (outboxEventRepository.existsClaimedAfter(now)) {
+            return List.of();
+        }
+        List<OutboxEvent> page = outboxEventRepository.findOldestDue(now, PageRequest.of(0, fetchSize));
+        if (!page.isEmpty()) {
+            outboxEventRepository.updateClaimedUntil(ids(page), now.plus(claimLease));
+        }
+        return page;
+    }
+
+    private Pass send(List<OutboxEvent> page) {
+        Set<String> blockedCustomers = new HashSet<>();
+        List<OutboxEvent> delivered = new ArrayList<>();
+        List<OutboxEvent> failures = new ArrayList<>();
+
+        List<OutboxEvent> pending = page;
+        while (!pending.isEmpty()) {
+            List<OutboxEvent> batch = new ArrayList<>();
+            List<OutboxEvent> deferred = new ArrayList<>();
+            Set<String> customersInBatch = new HashSet<>();
+            for (OutboxEvent event : pending) {
+                if (blockedCustomers.contains(event.getCustomerId())) {
+                    continue;
+                }
+                if (batch.size() < MAX_ENTRIES_PER_PUT && customersInBatch.add(event.getCustomerId())) {
+                    batch.add(event);
+                } else {
+                    deferred.add(event);
+                }
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            sendBatch(batch, delivered, failures, blockedCustomers);
+            pending = deferred;
+        }
+        return new Pass(delivered, failures);
+    }
+
+    private void sendBatch(
+        List<OutboxEvent> batch,
+        List<OutboxEvent> delivered,
+        List<OutboxEvent> failures,
+        Set<String> blockedCustomers
+    ) {
+        List<PutEventsRequestEntry> entries = batch.stream()
+            .map(event -> eventPublisher.toEntry(event.getDetailType(), event.getPayload()))
+            .toList();
+
+        PutEventsResponse response;
+        try {
+            response = eventPublisher.putEntries(entries);
+        } catch (Exception e) {
+            log.warn("PutEvents failed for {} outbox events", batch.size(), e);
+            for (OutboxEvent event : batch) {
+                markFailed(event, e.getMessage(), failures, blockedCustomers);
+            }
+            return;
+        }
+
+        List<PutEventsResultEntry> results = response.entries();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            PutEventsResultEntry result = i < results.size() ? results.get(i) : null;
+            if (result != null && result.errorCode() == null) {
+                delivered.add(event);
+                published.increment();
+            } else {
+                String error = result == null ? "missing result entry" : result.errorCode() + ": " + result.errorMessage();
+                markFailed(event, error, failures, blockedCustomers);
+            }
+        }
+    }
+
+    private void markFailed(OutboxEvent event, String error, List<OutboxEvent> failures, Set<String> blockedCustomers) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 1024)));
+        failures.add(event);
+        blockedCustomers.add(event.getCustomerId());
+        failed.increment();
+        log.warn(
+            "Outbox event id={} for order id={} not delivered (attempt {}): {}",
+            event.getId(),
+            event.getOrderId(),
+            event.getAttempts(),
+            error
+        );
+    }
+
+    /**
+     * Deletes the delivered events, schedules or parks the failed ones and releases the claim on the rest.
+     */
+    private void finish(List<OutboxEvent> page, Pass pass) {
+        if (!pass.delivered().isEmpty()) {
+            outboxEventRepository.deleteAllByIdInBatch(ids(pass.delivered()));
+        }
+
+        List<Long> undelivered = new ArrayList<>(ids(page));
+        undelivered.removeAll(ids(pass.delivered()));
+        if (!undelivered.isEmpty()) {
+            outboxEventRepository.updateClaimedUntil(undelivered, null);
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        for (OutboxEvent event : pass.failed()) {
+            event.setClaimedUntil(null);
+            if (event.getAttempts() >= maxAttempts) {
+                event.setStatus(OutboxEvent.Status.PARKED);
+                event.setNextAttemptAt(null);
+                parked.increment();
+                log.error(
+                    "Outbox event id={} for order id={} parked after {} attempts; later events for customer {} continue",
+                    event.getId(),
+                    event.getOrderId(),
+                    event.getAttempts(),
+                    event.getCustomerId()
+                );
+            } else {
+                event.setNextAttemptAt(now.plus(backoff(event.getAttempts())));
+            }
+        }
+        outboxEventRepository.saveAll(pass.failed());
+    }
+
+    /**
+     * Exponential backoff from {@code retry-backoff-base-ms}, doubling per attempt up to
+     * {@code retry-backoff-max-ms}.
+     */
+    Duration backoff(int attempts) {
+        Duration delay = backoffBase.multipliedBy(1L << Math.min(Math.max(0, attempts - 1), 30));
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    private static List<Long> ids(List<OutboxEvent> events) {
+        return events.stream().map(OutboxEvent::getId).toList();
+    }
+
+    private void updateLag() {
+        try {
+            OffsetDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt();
+            lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, OffsetDateTime.now()).toMillis()));
+        } catch (Exception e) {
+            log.warn("Failed to compute outbox lag: {}", e.getMessage());
+        }
+    }
+}
@@ -2,62 +2,148 @@ package com.novamart.order.events;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novamart.order.config.AwsClients;
 import com.novamart.order.domain.Order;
+import com.novamart.order.domain.OutboxEvent;
+import com.novamart.order.repository.OutboxEventRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import software.amazon.awssdk.regions.Region;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import software.amazon.awssdk.services.eventbridge.EventBridgeAsyncClient;
 import software.amazon.awssdk.services.eventbridge.EventBridgeClient;
-import software.amazon.awssdk.services.eventbridge.EventBridgeClientBuilder;
 import software.amazon.awssdk.services.eventbridge.model.PutEventsRequest;
 import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResponse;
 
-import java.net.URI;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Publishes order.placed events to AWS EventBridge.
+ *
+ * In {@code direct} delivery the event is sent right after the order is committed. In {@code outbox}
+ * delivery it is written to the outbox table inside the order transaction and {@link OrderOutboxRelay}
+ * sends it later. In {@code async} delivery the request thread only serializes the event and hands it to
+ * a {@link MicroBatchingEventSender}.
  */
 @Component
 public class OrderPlacedEventPublisher {
 
     private static final Logger log = LoggerFactory.getLogger(OrderPlacedEventPublisher.class);
 
+    static final String ORDER_PLACED = "order.placed";
+
+    public enum Delivery {
+        DIRECT,
+        OUTBOX,
+        ASYNC
+    }
+
     private final EventBridgeClient eventBridgeClient;
     private final ObjectMapper objectMapper;
+    private final OutboxEventRepository outboxEventRepository;
     private final String busName;
     private final String source;
+    private final Delivery delivery;
+    private final MicroBatchingEventSender asyncSender;
 
     public OrderPlacedEventPublisher(
-        @Value("${aws.region}") String awsRegion,
+        AwsClients awsClients,
         @Value("${aws.eventbridge-endpoint:}") String eventBridgeEndpoint,
         @Value("${novamart.events.bus-name}") String busName,
-        @Value("${novamart.events.source}") String source
+        @Value("${novamart.events.source}") String source,
+        @Value("${novamart.events.delivery:direct}") String delivery,
+        @Value("${novamart.events.async.queue-capacity:10000}") int asyncQueueCapacity,
+        @Value("${novamart.events.async.max-batch-size:10}") int asyncMaxBatchSize,
+        @Value("${novamart.events.async.linger-ms:20}") long asyncLingerMs,
+        @Value("${novamart.events.async.max-in-flight:4}") int asyncMaxInFlight,
+        @Value("${novamart.events.async.overflow:sync}") String asyncOverflow,
+        @Value("${novamart.events.async.block-timeout-ms:50}") long asyncBlockTimeoutMs,
+        @Value("${novamart.events.async.drain-timeout-ms:5000}") long asyncDrainTimeoutMs,
+        @Value("${novamart.events.async.retry-backoff-ms:100}") long asyncRetryBackoffMs,
+        ObjectMapper objectMapper,
+        OutboxEventRepository outboxEventRepository,
+        MeterRegistry meterRegistry
     ) {
-        EventBridgeClientBuilder builder = EventBridgeClient.builder()
-            .region(Region.of(awsRegion));
-        if (eventBridgeEndpoint != null && !eventBridgeEndpoint.isBlank()) {
-            builder.endpointOverride(URI.create(eventBridgeEndpoint));
-        }
-        this.eventBridgeClient = builder.build();
-        this.objectMapper = new ObjectMapper();
+        this.eventBridgeClient = awsClients.sync(EventBridgeClient.builder(), eventBridgeEndpoint).build();
+        this.objectMapper = objectMapper;
+        this.outboxEventRepository = outboxEventRepository;
         this.busName = busName;
         this.source = source;
+        this.delivery = Delivery.valueOf(delivery.trim().toUpperCase());
+
+        if (this.delivery == Delivery.ASYNC) {
+            this.asyncSender = new MicroBatchingEventSender(
+                awsClients.async(EventBridgeAsyncClient.builder(), eventBridgeEndpoint).build(),
+                asyncQueueCapacity,
+                // EventBridge accepts at most 10 entries per PutEvents call.
+                Math.min(asyncMaxBatchSize, 10),
+                Duration.ofMillis(asyncLingerMs),
+                asyncMaxInFlight,
+                MicroBatchingEventSender.OverflowPolicy.valueOf(asyncOverflow.trim().toUpperCase()),
+                Duration.ofMillis(asyncBlockTimeoutMs),
+                Duration.ofMillis(asyncDrainTimeoutMs),
+                Duration.ofMillis(asyncRetryBackoffMs),
+                this::putEntrySync,
+                meterRegistry
+            );
+        } else {
+            this.asyncSender = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (asyncSender != null) {
+            asyncSender.close();
+        }
+    }
+
+    /**
+     * Called inside the order transaction. In outbox delivery this stores the event so it commits or rolls
+     * back together with the order; otherwise it does nothing.
+     */
+    public void stageOrderPlaced(Order order) {
+        if (delivery != Delivery.OUTBOX) {
+            return;
+        }
+
+        OutboxEvent event = new OutboxEvent();
+        event.setOrderId(order.getId());
+        event.setCustomerId(order.getCustomerId());
+        event.setDetailType(ORDER_PLACED);
+        try {
+            event.setPayload(serializePayload(order));
+        } catch (JsonProcessingException e) {
+            // Failing here rolls the order back, which beats committing an order whose event can never be sent.
+            throw new IllegalStateException("Failed to serialize order.placed payload for order id=" + order.getId(), e);
+        }
+        outboxEventRepository.save(event);
     }
 
+    /**
+     * Called after the order transaction has committed. Sends the event straight away in direct delivery;
+     * in outbox delivery the relay takes care of it.
+     */
     public void publishOrderPlaced(Order order) {
+        if (delivery == Delivery.OUTBOX) {
+            return;
+        }
+
         try {
-            String detailJson = objectMapper.writeValueAsString(new OrderPlacedPayload(order));
+            String detailJson = serializePayload(order);
 
-            PutEventsRequestEntry entry = PutEventsRequestEntry.builder()
-                .eventBusName(busName)
-                .source(source)
-                .detailType("order.placed")
-                .detail(detailJson)
-                .build();
+            if (asyncSender != null) {
+                asyncSender.submit(toEntry(ORDER_PLACED, detailJson));
+                return;
+            }
 
             eventBridgeClient.putEvents(
-                PutEventsRequest.builder().entries(entry).build()
+                PutEventsRequest.builder().entries(toEntry(ORDER_PLACED, detailJson)).build()
             );
 
             log.info("Published order.placed event for order id={}", order.getId());
@@ -67,5 +153,29 @@ public class OrderPlacedEventPublisher {
             log.error("Failed to publish order.placed event for order id={}", order.getId(), e);
         }
     }
-}
 
+    String serializePayload(Order order) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new OrderPlacedPayload(order));
+    }
+
+    PutEventsRequestEntry toEntry(String detailType, String detailJson) {
+        return PutEventsRequestEntry.builder()
+            .eventBusName(busName)
+            .source(source)
+            .detailType(detailType)
+            .detail(detailJson)
+            .build();
+    }
+
+    PutEventsResponse putEntries(List<PutEventsRequestEntry> entries) {
+        return eventBridgeClient.putEvents(PutEventsRequest.builder().entries(entries).build());
+    }
+
+    private void putEntrySync(PutEventsRequestEntry entry) {
+        try {
+            putEntries(List.of(entry));
+        } catch (Exception e) {
+            log.error("Failed to publish order.placed event synchronously after async queue overflow", e);
+        }
+    }
+}
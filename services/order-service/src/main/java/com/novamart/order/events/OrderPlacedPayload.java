@@ -1,22 +1,27 @@
 package com.novamart.order.events;
 
-import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
 
 import com.novamart.order.domain.Order;
 import com.novamart.order.domain.OrderItem;
+import com.novamart.order.money.Money;
 
 /**
  * Lightweight DTO that is serialized as the EventBridge detail for order.placed.
+ *
+ * Amounts are sent both as decimals ({@code totalAmount}, {@code unitPrice}) and as integer cents
+ * ({@code totalCents}, {@code unitPriceCents}); the inventory and payment handlers read the cents.
  */
 public class OrderPlacedPayload {
 
     private Long orderId;
     private String customerId;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
     private OffsetDateTime createdAt;
     private List<OrderItemPayload> items;
+    private boolean inventoryReserved;
+    private boolean inventoryReservedOverHttp;
 
     public OrderPlacedPayload(Order order) {
         this.orderId = order.getId();
@@ -26,6 +31,8 @@ public class OrderPlacedPayload {
         this.items = order.getItems().stream()
             .map(OrderItemPayload::new)
             .toList();
+        this.inventoryReserved = order.isInventoryReserved();
+        this.inventoryReservedOverHttp = order.isInventoryReservedOverHttp();
     }
 
     public Long getOrderId() {
@@ -36,10 +43,14 @@ public class OrderPlacedPayload {
         return customerId;
     }
 
-    public BigDecimal getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
+    public long getTotalCents() {
+        return totalAmount == null ? 0 : totalAmount.minorUnits();
+    }
+
     public OffsetDateTime getCreatedAt() {
         return createdAt;
     }
@@ -48,11 +59,26 @@ public class OrderPlacedPayload {
         return items;
     }
 
+    /**
+     * True when the stock was already taken by order-service; inventory-service then only confirms it.
+     */
+    public boolean isInventoryReserved() {
+        return inventoryReserved;
+    }
+
+    /**
+     * True when order-service reserves the stock through inventory-service's HTTP endpoint; the order.placed
+     * consumer then leaves the order alone.
+     */
+    public boolean isInventoryReservedOverHttp() {
+        return inventoryReservedOverHttp;
+    }
+
     public static class OrderItemPayload {
         private String productId;
         private Long catalogProductId;
         private Integer quantity;
-        private BigDecimal unitPrice;
+        private Money unitPrice;
 
         public OrderItemPayload(OrderItem item) {
             this.productId = item.getProductSku() != null && !item.getProductSku().isBlank()
@@ -75,8 +101,12 @@ public class OrderPlacedPayload {
             return quantity;
         }
 
-        public BigDecimal getUnitPrice() {
+        public Money getUnitPrice() {
             return unitPrice;
         }
+
+        public long getUnitPriceCents() {
+            return unitPrice == null ? 0 : unitPrice.minorUnits();
+        }
     }
 }
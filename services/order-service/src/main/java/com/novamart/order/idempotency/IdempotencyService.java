@@ -0,0 +1,290 @@
+package com.novamart.order.idempotency;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novamart.order.domain.IdempotencyRecord;
+import com.novamart.order.domain.Order;
+import com.novamart.order.dto.CreateOrderRequest;
+import com.novamart.order.repository.IdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Makes {@code POST /orders} idempotent per Idempotency-Key.
+ *
+ * The first request with a key runs normally and its response is stored with the order (see
+ * {@link #stage}). Later requests with the same key and body get the stored response back without
+ * touching inventory, the database insert or EventBridge: from a bounded in-memory cache when this
+ * replica has seen the key, otherwise from Postgres. Both only replay a key within {@code retention-hours}
+ * of when it was stored; after that the key runs as a new request. Requests that arrive while the first is still
+ * running wait for it and share its outcome, including its error. Across replicas the key's primary key
+ * settles races: the losing transaction rolls back and its caller gets the winner's response.
+ *
+ * Failed requests store nothing, so a client may retry them with the same key. A key reused with a
+ * different body is rejected with 422.
+ */
+@Component
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    static final int MAX_KEY_LENGTH = 128;
+
+    private final IdempotencyRecordRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration retention;
+    private final Duration waitTimeout;
+
+    private final Map<String, CompletableFuture<Outcome>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Completed> completed;
+
+    private final Counter executed;
+    private final Counter replayedFromMemory;
+    private final Counter replayedFromDatabase;
+    private final Counter collapsed;
+
+    /**
+     * The response body and whether it was replayed rather than produced by this request.
+     */
+    public record Outcome(String requestHash, String body, boolean replayed) {
+        Outcome asReplay() {
+            return replayed ? this : new Outcome(requestHash, body, true);
+        }
+    }
+
+    /**
+     * An outcome with the time its key was stored, which is when its retention started.
+     */
+    private record Completed(Outcome outcome, OffsetDateTime createdAt) { }
+
+    public IdempotencyService(
+        IdempotencyRecordRepository repository,
+        TransactionTemplate transactionTemplate,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${novamart.idempotency.retention-hours:${ORDER_IDEMPOTENCY_RETENTION_HOURS:24}}") long retentionHours,
+        @Value("${novamart.idempotency.cache-max-entries:${ORDER_IDEMPOTENCY_CACHE_MAX_ENTRIES:10000}}") int cacheMaxEntries,
+        @Value("${novamart.idempotency.wait-timeout-ms:${ORDER_IDEMPOTENCY_WAIT_TIMEOUT_MS:10000}}") long waitTimeoutMs
+    ) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.retention = Duration.ofHours(retentionHours);
+        this.waitTimeout = Duration.ofMillis(waitTimeoutMs);
+        this.completed = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > cacheMaxEntries;
+            }
+        };
+
+        this.executed = requestCounter(meterRegistry, "executed");
+        this.replayedFromMemory = requestCounter(meterRegistry, "replayed_memory");
+        this.replayedFromDatabase = requestCounter(meterRegistry, "replayed_database");
+        this.collapsed = requestCounter(meterRegistry, "collapsed");
+    }
+
+    /**
+     * Validates the key and fingerprints the request body.
+     */
+    public IdempotentRequest prepare(String customerId, String key, CreateOrderRequest request) {
+        String trimmed = key.trim();
+        if (trimmed.isEmpty() || trimmed.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters"
+            );
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return new IdempotentRequest(customerId + ":" + trimmed, HexFormat.of().formatHex(digest));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint order request", e);
+        }
+    }
+
+    /**
+     * Runs {@code createOrder} once per key and returns its JSON response, or the stored response of an
+     * earlier request with the same key.
+     */
+    public Outcome execute(IdempotentRequest request, Function<IdempotentRequest, Order> createOrder) {
+        Completed cached;
+        synchronized (completed) {
+            cached = completed.get(request.scopedKey());
+            if (cached != null && expired(cached.createdAt())) {
+                completed.remove(request.scopedKey());
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            replayedFromMemory.increment();
+            return checked(request, cached.outcome().asReplay());
+        }
+
+        CompletableFuture<Outcome> leader = new CompletableFuture<>();
+        CompletableFuture<Outcome> running = inFlight.putIfAbsent(request.scopedKey(), leader);
+        if (running != null) {
+            collapsed.increment();
+            return checked(request, await(running).asReplay());
+        }
+
+        try {
+            Completed led = lead(request, createOrder);
+            synchronized (completed) {
+                completed.put(request.scopedKey(), new Completed(led.outcome().asReplay(), led.createdAt()));
+            }
+            leader.complete(led.outcome());
+            return checked(request, led.outcome());
+        } catch (RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(request.scopedKey(), leader);
+        }
+    }
+
+    /**
+     * Called inside the order transaction right after the insert: stores the response under the key, so
+     * the key commits or rolls back together with the order.
+     */
+    public void stage(IdempotentRequest request, Order order) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(request.scopedKey());
+        record.setRequestHash(request.requestHash());
+        record.setOrderId(order.getId());
+        record.setResponseBody(render(order));
+        repository.save(record);
+    }
+
+    @Scheduled(fixedDelayString = "${novamart.idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        try {
+            Integer deleted = transactionTemplate.execute(status ->
+                repository.deleteCreatedBefore(OffsetDateTime.now().minus(retention))
+            );
+            if (deleted != null && deleted > 0) {
+                log.info("Deleted {} expired idempotency keys", deleted);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to delete expired idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    private Completed lead(IdempotentRequest request, Function<IdempotentRequest, Order> createOrder) {
+        Completed stored = findStored(request);
+        if (stored != null) {
+            replayedFromDatabase.increment();
+            return stored;
+        }
+
+        try {
+            OffsetDateTime startedAt = OffsetDateTime.now();
+            Order order = createOrder.apply(request);
+            executed.increment();
+            return new Completed(new Outcome(request.requestHash(), render(order), false), startedAt);
+        } catch (DataIntegrityViolationException e) {
+            // Another replica committed an order for this key between our lookup and our commit.
+            stored = findStored(request);
+            if (stored == null) {
+                throw e;
+            }
+            replayedFromDatabase.increment();
+            return stored;
+        }
+    }
+
+    /**
+     * The response stored under the key, or null. A row past its retention that the cleanup has not
+     * deleted yet is deleted here, since the new response's insert would otherwise collide with its
+     * primary key.
+     */
+    private Completed findStored(IdempotentRequest request) {
+        IdempotencyRecord record = repository.findById(request.scopedKey()).orElse(null);
+        if (record == null) {
+            return null;
+        }
+        OffsetDateTime createdAt = record.getCreatedAt() == null ? OffsetDateTime.now() : record.getCreatedAt();
+        if (expired(createdAt)) {
+            // Only a row that is still expired: a replica that just replaced it keeps its new row.
+            transactionTemplate.execute(status ->
+                repository.deleteExpired(record.getId(), OffsetDateTime.now().minus(retention))
+            );
+            return null;
+        }
+        return new Completed(new Outcome(record.getRequestHash(), record.getResponseBody(), true), createdAt);
+    }
+
+    private boolean expired(OffsetDateTime createdAt) {
+        return !createdAt.isAfter(OffsetDateTime.now().minus(retention));
+    }
+
+    private Outcome await(CompletableFuture<Outcome> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(
+                HttpStatus.CONFLICT,
+                "A request with this Idempotency-Key is still being processed"
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted");
+        }
+    }
+
+    private static Outcome checked(IdempotentRequest request, Outcome outcome) {
+        if (!outcome.requestHash().equals(request.requestHash())) {
+            throw new ResponseStatusException(
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key was already used for a different request"
+            );
+        }
+        return outcome;
+    }
+
+    private String render(Order order) {
+        try {
+            return objectMapper.writeValueAsString(order);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order id=" + order.getId(), e);
+        }
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("novamart.orders.idempotency")
+            .description("Keyed order requests by how they were answered")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
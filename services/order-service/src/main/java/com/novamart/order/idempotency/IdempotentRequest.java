@@ -0,0 +1,8 @@
+package com.novamart.order.idempotency;
+
+/**
+ * A create-order request carrying an Idempotency-Key: the key scoped to the customer, plus a hash of the
+ * request body used to reject a key reused for a different order.
+ */
+public record IdempotentRequest(String scopedKey, String requestHash) {
+}
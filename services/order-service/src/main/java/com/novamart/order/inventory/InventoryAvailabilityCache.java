@@ -0,0 +1,125 @@
+package com.novamart.order.inventory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Short-lived, bounded cache of inventory stock levels read from DynamoDB.
+ *
+ * A cached level is only trusted when it exceeds the requested quantity by at least the safety margin, and
+ * low-stock products always go back to the table. This is a bounded-staleness heuristic, not a guarantee:
+ * nothing limits how much stock other orders and replicas take within the TTL, so a check served from the
+ * cache can pass for stock that is already gone and admit an oversell. The margin only makes that unlikely
+ * while demand per TTL stays below it. Only {@code reservation-mode=atomic}, which decrements the stock with
+ * a conditional write, prevents oversells. Lookups are counted per outcome under
+ * {@code novamart.inventory.cache}:
+ * {@code hit} (served from cache), {@code miss} (nothing cached) and {@code bypass} (cached but too close
+ * to the requested quantity).
+ */
+@Component
+public class InventoryAvailabilityCache {
+
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final int safetyMargin;
+    private final Map<String, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+
+    public InventoryAvailabilityCache(
+        @Value("${novamart.inventory.cache.enabled:${INVENTORY_CACHE_ENABLED:false}}") boolean enabled,
+        @Value("${novamart.inventory.cache.ttl-ms:2000}") long ttlMs,
+        @Value("${novamart.inventory.cache.max-entries:10000}") int maxEntries,
+        @Value("${novamart.inventory.cache.safety-margin:50}") int safetyMargin,
+        MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.safetyMargin = Math.max(0, safetyMargin);
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.hits = cacheCounter(meterRegistry, "hit");
+        this.misses = cacheCounter(meterRegistry, "miss");
+        this.bypasses = cacheCounter(meterRegistry, "bypass");
+        Gauge.builder("novamart.inventory.cache.size", this, InventoryAvailabilityCache::size)
+            .description("Products currently held in the inventory availability cache")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the cached stock if it is fresh and comfortably above {@code requested}, otherwise null to
+     * signal that the caller must read the table.
+     */
+    public Integer availableIfWellStocked(String inventoryProductId, int requested) {
+        if (!enabled) {
+            return null;
+        }
+
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(inventoryProductId);
+            if (entry != null && entry.isExpired(System.nanoTime())) {
+                entries.remove(inventoryProductId);
+                entry = null;
+            }
+        }
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if ((long) entry.stock() - requested < safetyMargin) {
+            bypasses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.stock();
+    }
+
+    public void record(String inventoryProductId, int stock) {
+        if (!enabled) {
+            return;
+        }
+        Entry entry = new Entry(stock, System.nanoTime() + ttlNanos);
+        synchronized (entries) {
+            entries.put(inventoryProductId, entry);
+        }
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static Counter cacheCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("novamart.inventory.cache")
+            .description("Inventory availability cache lookups by outcome")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private record Entry(int stock, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
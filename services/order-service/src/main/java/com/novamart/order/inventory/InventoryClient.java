@@ -1,7 +1,19 @@
 package com.novamart.order.inventory;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,87 +22,618 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.novamart.order.config.AwsClients;
 import com.novamart.order.dto.CreateOrderItemRequest;
 
-import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchGetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
 import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
-
-import java.net.URI;
+import software.amazon.awssdk.services.dynamodb.model.KeysAndAttributes;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValuesOnConditionCheckFailure;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+import software.amazon.awssdk.services.dynamodb.model.Update;
 
 @Component
 public class InventoryClient {
 
     private static final Logger log = LoggerFactory.getLogger(InventoryClient.class);
 
+    /**
+     * DynamoDB rejects BatchGetItem requests with more than 100 keys.
+     */
+    private static final int MAX_BATCH_GET_KEYS = 100;
+    private static final int MAX_UNPROCESSED_RETRIES = 5;
+    private static final long UNPROCESSED_BASE_BACKOFF_MS = 20;
+    /**
+     * DynamoDB rejects TransactWriteItems requests with more than 100 actions.
+     */
+    private static final int MAX_TRANSACT_ITEMS = 100;
+    private static final int MAX_TRANSACTION_RETRIES = 3;
+
+    private static final String RESERVE_EXPRESSION = "SET stock = stock - :q";
+    private static final String RESERVE_CONDITION = "attribute_exists(stock) AND stock >= :q";
+    private static final String RELEASE_EXPRESSION = "SET stock = stock + :q";
+
+    public enum RebalanceOutcome {
+        /** Every shard already holds at least half of its share and nothing waits on the unsharded item. */
+        BALANCED,
+        /** Stock was moved between the product's items. */
+        MOVED,
+        /** An item changed between the read and the write; nothing was moved. */
+        CONFLICT
+    }
+
+    public enum ReservationMode {
+        /** Read stock before the insert; inventory-service reserves it later from order.placed or HTTP. */
+        CHECK,
+        /** Take the stock in one conditional write before the insert and give it back if the insert fails. */
+        ATOMIC
+    }
+
     private final DynamoDbClient dynamoDb;
+    private final DynamoDbAsyncClient dynamoDbAsync;
+    private final InventoryAvailabilityCache availabilityCache;
+    private final InventoryShards shards;
     private final String tableName;
     private final boolean enforce;
+    private final ReservationMode reservationMode;
+    private final Duration asyncDeadline;
+    private final int asyncRequestConcurrency;
 
     public InventoryClient(
-        @Value("${aws.region}") String awsRegion,
+        AwsClients awsClients,
         @Value("${aws.endpoint:}") String awsEndpoint,
         @Value("${novamart.inventory.table:${INVENTORY_TABLE_NAME:inventory}}") String tableName,
-        @Value("${novamart.inventory.enforce:${INVENTORY_ENFORCE:true}}") boolean enforce
+        @Value("${novamart.inventory.enforce:${INVENTORY_ENFORCE:true}}") boolean enforce,
+        @Value("${novamart.inventory.reservation-mode:${INVENTORY_RESERVATION_MODE:check}}") String reservationMode,
+        @Value("${novamart.inventory.async.enabled:${INVENTORY_ASYNC_ENABLED:false}}") boolean asyncEnabled,
+        @Value("${novamart.inventory.async.deadline-ms:1500}") long asyncDeadlineMs,
+        @Value("${novamart.inventory.async.request-concurrency:8}") int asyncRequestConcurrency,
+        InventoryAvailabilityCache availabilityCache,
+        InventoryShards shards
     ) {
-        DynamoDbClientBuilder builder = DynamoDbClient.builder()
-            .region(Region.of(awsRegion));
-        if (awsEndpoint != null && !awsEndpoint.isBlank()) {
-            builder.endpointOverride(URI.create(awsEndpoint));
+        this.enforce = enforce;
+        this.reservationMode = ReservationMode.valueOf(reservationMode.trim().toUpperCase());
+        if (shards.isEnabled() && !reservesAtomically()) {
+            // inventory-service only decrements the unsharded item, and the rebalancer would move stock from
+            // under it.
+            throw new IllegalStateException(
+                "novamart.inventory.shards.enabled requires novamart.inventory.reservation-mode=atomic (sharded products: "
+                    + shards.products() + ")"
+            );
         }
-        this.dynamoDb = builder.build();
+        this.dynamoDb = awsClients.sync(DynamoDbClient.builder(), awsEndpoint).build();
+        this.availabilityCache = availabilityCache;
+        this.shards = shards;
         this.tableName = tableName;
-        this.enforce = enforce;
+        this.asyncDeadline = Duration.ofMillis(asyncDeadlineMs);
+        this.asyncRequestConcurrency = Math.max(1, asyncRequestConcurrency);
+
+        if (asyncEnabled) {
+            // The shared async HTTP client's connection limit is the JVM-wide cap on in-flight lookups;
+            // callers over the cap queue for a connection until their deadline expires.
+            this.dynamoDbAsync = awsClients.async(DynamoDbAsyncClient.builder(), awsEndpoint)
+                .overrideConfiguration(awsClients.overrides().toBuilder().apiCallTimeout(asyncDeadline).build())
+                .build();
+        } else {
+            this.dynamoDbAsync = null;
+        }
     }
 
     public void assertSufficientStock(List<CreateOrderItemRequest> items) {
+        List<InsufficientStockItem> insufficient = findInsufficientStock(items);
+        if (!insufficient.isEmpty()) {
+            throw new InsufficientStockException(insufficient);
+        }
+    }
+
+    /**
+     * Starts a stock check and returns the shortages without blocking the caller when the async client is
+     * enabled. Each distinct product is looked up with its own GetItem, at most {@code request-concurrency}
+     * at a time, and the whole check fails with 503 once the deadline passes. Without the async client the
+     * batched lookup runs inline and the returned future is already complete.
+     */
+    public CompletableFuture<List<InsufficientStockItem>> checkStockAsync(List<CreateOrderItemRequest> items) {
+        if (!enforce) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        if (dynamoDbAsync == null) {
+            try {
+                return CompletableFuture.completedFuture(findInsufficientStock(items));
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        Map<String, Integer> requestedByProductId = collapseRequested(items);
+        Map<String, Integer> availableByProductId = new ConcurrentHashMap<>();
+        List<String> toFetch = resolveFromCache(requestedByProductId, availableByProductId);
+        Iterator<String> pending = toFetch.iterator();
+
+        List<CompletableFuture<Void>> lanes = new ArrayList<>();
+        int laneCount = Math.min(asyncRequestConcurrency, toFetch.size());
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(nextLookup(pending, availableByProductId));
+        }
+
+        return CompletableFuture.allOf(lanes.toArray(CompletableFuture[]::new))
+            .orTimeout(asyncDeadline.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((ignored, failure) -> {
+                if (failure != null) {
+                    // Stop lanes from starting lookups nobody is waiting for any more.
+                    synchronized (pending) {
+                        pending.forEachRemaining(productId -> { });
+                    }
+                }
+            })
+            .thenApply(ignored -> toInsufficient(requestedByProductId, availableByProductId));
+    }
+
+    /**
+     * Waits for a stock check started by {@link #checkStockAsync} and throws the same exceptions as
+     * {@link #assertSufficientStock}.
+     */
+    public void awaitSufficientStock(CompletableFuture<List<InsufficientStockItem>> stockCheck) {
+        List<InsufficientStockItem> insufficient;
+        try {
+            insufficient = stockCheck.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventory service unavailable");
+        } catch (ExecutionException e) {
+            throw unwrapLookupFailure(e.getCause());
+        }
+        if (!insufficient.isEmpty()) {
+            throw new InsufficientStockException(insufficient);
+        }
+    }
+
+    /**
+     * Whether orders take their stock up front with {@link #reserveStock} instead of the read-only check.
+     */
+    public boolean reservesAtomically() {
+        return enforce && reservationMode == ReservationMode.ATOMIC;
+    }
+
+    /**
+     * Takes the stock for every product in the order in one all-or-nothing TransactWriteItems call, each
+     * decrement conditional on {@code stock >= :q}. A single item goes through a transaction too: the SDK
+     * gives it a client request token, so when an attempt times out after DynamoDB applied it the SDK's
+     * retry is answered with the first result. A retried UpdateItem would take the stock a second time, or
+     * fail its condition and leave the first decrement unaccounted for. There is no separate read, so two orders racing for the last units cannot both get them. If any
+     * product is short nothing is taken and an {@link InsufficientStockException} lists the short products
+     * with the stock they had. Sharded products are taken from one shard and retried on others when that
+     * shard is short or throttled (see {@link ReservationPlanner}).
+     */
+    public StockReservation reserveStock(List<CreateOrderItemRequest> items) {
         if (!enforce) {
+            return StockReservation.NONE;
+        }
+
+        Map<String, Integer> requestedByProductId = collapseRequested(items);
+        requestedByProductId.values().removeIf(quantity -> quantity <= 0);
+        if (requestedByProductId.isEmpty()) {
+            return StockReservation.NONE;
+        }
+        if (requestedByProductId.size() > MAX_TRANSACT_ITEMS) {
+            throw new ResponseStatusException(
+                HttpStatus.BAD_REQUEST,
+                "An order can reserve at most " + MAX_TRANSACT_ITEMS + " distinct products"
+            );
+        }
+
+        ReservationPlanner planner = new ReservationPlanner(requestedByProductId, shards);
+        for (int attempt = 1; ; attempt++) {
+            Map<String, Integer> writes = planner.nextAttempt();
+            if (attempt > planner.maxAttempts() || writes.size() > MAX_TRANSACT_ITEMS) {
+                log.warn("Inventory reservation gave up after {} attempts for productIds={}", attempt - 1, requestedByProductId.keySet());
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventory service unavailable");
+            }
+            if (attempt > 1) {
+                shards.recordFallover();
+            }
+
+            try {
+                writeTransaction(writes, RESERVE_EXPRESSION, RESERVE_CONDITION);
+                return new StockReservation(Map.copyOf(writes));
+            } catch (ItemsShortException e) {
+                planner.recordStock(e.stockByItemKey);
+            } catch (ItemsThrottledException e) {
+                if (!planner.recordThrottled(e.itemKeys)) {
+                    log.error("Inventory reservation throttled for productIds={}", e.itemKeys);
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventory service unavailable");
+                }
+            } catch (DynamoDbException e) {
+                log.error("Inventory reservation failed for productIds={}", requestedByProductId.keySet(), e);
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventory service unavailable");
+            }
+        }
+    }
+
+    /**
+     * Gives back stock taken by {@link #reserveStock} to the items it came from, e.g. when the order insert
+     * failed. A release that still fails after retries is logged with the quantities so it can be
+     * reconciled by hand.
+     */
+    public void releaseStock(StockReservation reservation) {
+        if (reservation == null || reservation.isEmpty()) {
             return;
         }
+        try {
+            writeTransaction(reservation.quantitiesByProductId(), RELEASE_EXPRESSION, null);
+        } catch (RuntimeException e) {
+            log.error("Inventory release failed; stock to give back by productId={}", reservation.quantitiesByProductId(), e);
+        }
+    }
+
+    /**
+     * Applies {@code updateExpression} with each item's quantity as {@code :q} in one transaction.
+     * Transactions cancelled by a concurrent transaction on the same items are retried; cancellations
+     * caused by the condition throw {@link ItemsShortException} and throttled items
+     * {@link ItemsThrottledException}.
+     */
+    private void writeTransaction(Map<String, Integer> quantitiesByItemKey, String updateExpression, String condition) {
+        List<String> itemKeys = new ArrayList<>(quantitiesByItemKey.keySet());
+        List<TransactWriteItem> writes = new ArrayList<>(itemKeys.size());
+        for (String itemKey : itemKeys) {
+            Update.Builder update = Update.builder()
+                .tableName(tableName)
+                .key(inventoryKey(itemKey))
+                .updateExpression(updateExpression)
+                .expressionAttributeValues(quantityValue(quantitiesByItemKey.get(itemKey)));
+            if (condition != null) {
+                update.conditionExpression(condition)
+                    .returnValuesOnConditionCheckFailure(ReturnValuesOnConditionCheckFailure.ALL_OLD);
+            }
+            writes.add(TransactWriteItem.builder().update(update.build()).build());
+        }
+        TransactWriteItemsRequest request = TransactWriteItemsRequest.builder().transactItems(writes).build();
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                dynamoDb.transactWriteItems(request);
+                return;
+            } catch (TransactionCanceledException e) {
+                Map<String, Integer> shortStock = new HashMap<>();
+                List<String> throttledItems = new ArrayList<>();
+                boolean conflict = false;
+                List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+                for (int i = 0; i < reasons.size() && i < itemKeys.size(); i++) {
+                    CancellationReason reason = reasons.get(i);
+                    String itemKey = itemKeys.get(i);
+                    if ("ConditionalCheckFailed".equals(reason.code())) {
+                        AttributeValue stock = reason.hasItem() ? reason.item().get("stock") : null;
+                        shortStock.put(itemKey, parseStock(itemKey, stock));
+                    } else if ("TransactionConflict".equals(reason.code())) {
+                        conflict = true;
+                    } else if ("ThrottlingError".equals(reason.code()) || "ProvisionedThroughputExceeded".equals(reason.code())) {
+                        throttledItems.add(itemKey);
+                    }
+                }
+                if (!shortStock.isEmpty()) {
+                    throw new ItemsShortException(shortStock);
+                }
+                if (conflict && attempt < MAX_TRANSACTION_RETRIES) {
+                    backoff(attempt + 1);
+                    continue;
+                }
+                if (!throttledItems.isEmpty()) {
+                    throw new ItemsThrottledException(throttledItems);
+                }
+                throw e;
+            } catch (DynamoDbException e) {
+                if (e.isThrottlingException()) {
+                    throw new ItemsThrottledException(itemKeys);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Items whose {@code stock >= :q} condition failed, with the stock they had.
+     */
+    private static final class ItemsShortException extends RuntimeException {
+        private final Map<String, Integer> stockByItemKey;
+
+        ItemsShortException(Map<String, Integer> stockByItemKey) {
+            super(null, null, false, false);
+            this.stockByItemKey = stockByItemKey;
+        }
+    }
+
+    /**
+     * Items DynamoDB throttled after the SDK's own retries.
+     */
+    private static final class ItemsThrottledException extends RuntimeException {
+        private final List<String> itemKeys;
+
+        ItemsThrottledException(List<String> itemKeys) {
+            super(null, null, false, false);
+            this.itemKeys = itemKeys;
+        }
+    }
+
+    /**
+     * Spreads a sharded product's stock, including anything written to its unsharded item, evenly over its
+     * shards in one transaction. Every write is conditional on the stock just read, so a reservation that
+     * lands in between cancels the move and the next run tries again. Nothing is written while each shard
+     * holds at least half of its share and the unsharded item is empty, which keeps the job off hot items
+     * that are draining evenly.
+     */
+    public RebalanceOutcome rebalanceShards(String inventoryProductId) {
+        List<String> itemKeys = shards.itemKeys(inventoryProductId);
+        if (itemKeys.size() == 1) {
+            return RebalanceOutcome.BALANCED;
+        }
+
+        Map<String, Integer> stockByItemKey = getItemStock(itemKeys);
+        int shardCount = itemKeys.size() - 1;
+        int total = stockByItemKey.values().stream().mapToInt(stock -> Math.max(0, stock)).sum();
+
+        Map<String, Integer> targetByItemKey = new LinkedHashMap<>();
+        boolean skewed = stockByItemKey.getOrDefault(inventoryProductId, 0) > 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            int share = total / shardCount + (shard < total % shardCount ? 1 : 0);
+            targetByItemKey.put(itemKeys.get(shard), share);
+            skewed |= stockByItemKey.getOrDefault(itemKeys.get(shard), 0) < share / 2;
+        }
+        targetByItemKey.put(inventoryProductId, 0);
+        if (!skewed) {
+            return RebalanceOutcome.BALANCED;
+        }
 
-        java.util.ArrayList<InsufficientStockItem> insufficient = new java.util.ArrayList<>();
+        List<TransactWriteItem> writes = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : targetByItemKey.entrySet()) {
+            Integer current = stockByItemKey.get(entry.getKey());
+            int target = entry.getValue();
+            if (current == null ? target == 0 : current == target) {
+                continue;
+            }
+            int from = current == null ? 0 : current;
+            Update update = Update.builder()
+                .tableName(tableName)
+                .key(inventoryKey(entry.getKey()))
+                .updateExpression("SET stock = :to")
+                .conditionExpression(from == 0 ? "attribute_not_exists(stock) OR stock = :from" : "stock = :from")
+                .expressionAttributeValues(Map.of(
+                    ":to", AttributeValue.builder().n(Integer.toString(target)).build(),
+                    ":from", AttributeValue.builder().n(Integer.toString(from)).build()
+                ))
+                .build();
+            writes.add(TransactWriteItem.builder().update(update).build());
+        }
+
+        try {
+            dynamoDb.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(writes).build());
+        } catch (TransactionCanceledException e) {
+            return RebalanceOutcome.CONFLICT;
+        }
+        log.info("Rebalanced {} units of productId={} over {} shards", total, inventoryProductId, shardCount);
+        return RebalanceOutcome.MOVED;
+    }
+
+    private static Map<String, AttributeValue> inventoryKey(String inventoryProductId) {
+        return Map.of("productId", AttributeValue.builder().s(inventoryProductId).build());
+    }
+
+    private static Map<String, AttributeValue> quantityValue(int quantity) {
+        return Map.of(":q", AttributeValue.builder().n(Integer.toString(quantity)).build());
+    }
+
+    private List<InsufficientStockItem> findInsufficientStock(List<CreateOrderItemRequest> items) {
+        if (!enforce) {
+            return List.of();
+        }
+
+        Map<String, Integer> requestedByProductId = collapseRequested(items);
+        Map<String, Integer> availableByProductId = new HashMap<>();
+        List<String> toFetch = resolveFromCache(requestedByProductId, availableByProductId);
+        if (!toFetch.isEmpty()) {
+            Map<String, Integer> fetched = getAvailableStock(toFetch);
+            for (String inventoryProductId : toFetch) {
+                int available = fetched.getOrDefault(inventoryProductId, 0);
+                availableByProductId.put(inventoryProductId, available);
+                availabilityCache.record(inventoryProductId, available);
+            }
+        }
+        return toInsufficient(requestedByProductId, availableByProductId);
+    }
+
+    /**
+     * Fills {@code available} with products the cache can vouch for and returns the ones that still have
+     * to be read from the table.
+     */
+    private List<String> resolveFromCache(Map<String, Integer> requestedByProductId, Map<String, Integer> available) {
+        if (!availabilityCache.isEnabled()) {
+            return new ArrayList<>(requestedByProductId.keySet());
+        }
+
+        List<String> toFetch = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : requestedByProductId.entrySet()) {
+            Integer cached = availabilityCache.availableIfWellStocked(entry.getKey(), entry.getValue());
+            if (cached != null) {
+                available.put(entry.getKey(), cached);
+            } else {
+                toFetch.add(entry.getKey());
+            }
+        }
+        return toFetch;
+    }
+
+    private static Map<String, Integer> collapseRequested(List<CreateOrderItemRequest> items) {
+        // Collapse duplicate SKUs so a product is looked up once and checked against its total requested quantity.
+        Map<String, Integer> requestedByProductId = new LinkedHashMap<>();
         for (CreateOrderItemRequest item : items) {
             String inventoryProductId = normalizeInventoryProductId(item);
             int requested = item.getQuantity() == null ? 0 : item.getQuantity();
+            requestedByProductId.merge(inventoryProductId, requested, Integer::sum);
+        }
+        return requestedByProductId;
+    }
 
-            int available = getAvailableStock(inventoryProductId);
+    private static List<InsufficientStockItem> toInsufficient(
+        Map<String, Integer> requestedByProductId,
+        Map<String, Integer> availableByProductId
+    ) {
+        List<InsufficientStockItem> insufficient = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : requestedByProductId.entrySet()) {
+            int requested = entry.getValue();
+            int available = availableByProductId.getOrDefault(entry.getKey(), 0);
             if (available < requested) {
-                insufficient.add(new InsufficientStockItem(inventoryProductId, requested, available));
+                insufficient.add(new InsufficientStockItem(entry.getKey(), requested, available));
             }
         }
+        return insufficient;
+    }
 
-        if (!insufficient.isEmpty()) {
-            throw new InsufficientStockException(insufficient);
+    /**
+     * Looks up the next pending product and, once it completes, chains the one after it, so each lane
+     * keeps a single GetItem in flight.
+     */
+    private CompletableFuture<Void> nextLookup(Iterator<String> pending, Map<String, Integer> available) {
+        String inventoryProductId;
+        synchronized (pending) {
+            if (!pending.hasNext()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            inventoryProductId = pending.next();
         }
+
+        return lookupStockAsync(inventoryProductId)
+            .thenCompose(availableStock -> {
+                available.put(inventoryProductId, availableStock);
+                availabilityCache.record(inventoryProductId, availableStock);
+                return nextLookup(pending, available);
+            });
     }
 
-    private int getAvailableStock(String inventoryProductId) {
-        try {
+    /**
+     * Reads a product's stock with one GetItem per item; a sharded product's items are read in parallel
+     * and summed.
+     */
+    private CompletableFuture<Integer> lookupStockAsync(String inventoryProductId) {
+        List<CompletableFuture<Integer>> lookups = new ArrayList<>();
+        for (String itemKey : shards.itemKeys(inventoryProductId)) {
             GetItemRequest request = GetItemRequest.builder()
                 .tableName(tableName)
                 .consistentRead(true)
-                .key(
-                    java.util.Map.of(
-                        "productId", AttributeValue.builder().s(inventoryProductId).build()
-                    )
-                )
+                .key(inventoryKey(itemKey))
+                .projectionExpression("stock")
                 .build();
+            lookups.add(dynamoDbAsync.getItem(request)
+                .thenApply(response -> parseStock(itemKey, response.hasItem() ? response.item().get("stock") : null)));
+        }
+        if (lookups.size() == 1) {
+            return lookups.get(0);
+        }
+        return CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> lookups.stream().mapToInt(CompletableFuture::join).sum());
+    }
 
-            GetItemResponse response = dynamoDb.getItem(request);
-            AttributeValue stock = response.item() == null ? null : response.item().get("stock");
-            if (stock == null || stock.n() == null) {
-                return 0;
+    private static RuntimeException unwrapLookupFailure(Throwable failure) {
+        Throwable cause = failure;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof ResponseStatusException || cause instanceof InsufficientStockException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof TimeoutException) {
+            log.error("Inventory lookup did not complete within the async deadline");
+        } else {
+            log.error("Inventory async lookup failed", cause);
+        }
+        return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventory service unavailable");
+    }
+
+    /**
+     * Reads the stock of every given product with strongly consistent BatchGetItem calls, chunked at the
+     * API key limit; a sharded product is the sum of its items. Products missing from the table are absent
+     * from the returned map.
+     */
+    private Map<String, Integer> getAvailableStock(List<String> inventoryProductIds) {
+        List<String> itemKeys = new ArrayList<>();
+        for (String inventoryProductId : inventoryProductIds) {
+            itemKeys.addAll(shards.itemKeys(inventoryProductId));
+        }
+        Map<String, Integer> stockByItemKey = getItemStock(itemKeys);
+        if (!shards.isEnabled()) {
+            return stockByItemKey;
+        }
+
+        Map<String, Integer> available = new HashMap<>();
+        for (String inventoryProductId : inventoryProductIds) {
+            for (String itemKey : shards.itemKeys(inventoryProductId)) {
+                Integer stock = stockByItemKey.get(itemKey);
+                if (stock != null) {
+                    available.merge(inventoryProductId, stock, Integer::sum);
+                }
+            }
+        }
+        return available;
+    }
+
+    private Map<String, Integer> getItemStock(List<String> itemKeys) {
+        Map<String, Integer> available = new HashMap<>();
+        for (int from = 0; from < itemKeys.size(); from += MAX_BATCH_GET_KEYS) {
+            List<String> chunk = itemKeys.subList(from, Math.min(from + MAX_BATCH_GET_KEYS, itemKeys.size()));
+            batchGetStock(chunk, available);
+        }
+        return available;
+    }
+
+    private void batchGetStock(List<String> inventoryProductIds, Map<String, Integer> available) {
+        List<Map<String, AttributeValue>> keys = inventoryProductIds.stream()
+            .map(id -> Map.of("productId", AttributeValue.builder().s(id).build()))
+            .toList();
+
+        Map<String, KeysAndAttributes> requestItems = Map.of(
+            tableName,
+            KeysAndAttributes.builder()
+                .keys(keys)
+                .consistentRead(true)
+                .projectionExpression("productId, stock")
+                .build()
+        );
+
+        try {
+            for (int attempt = 0; !requestItems.isEmpty(); attempt++) {
+                if (attempt > MAX_UNPROCESSED_RETRIES) {
+                    log.error(
+                        "Inventory batch lookup left unprocessed keys after {} retries for table={}",
+                        MAX_UNPROCESSED_RETRIES,
+                        tableName
+                    );
+                    throw new ResponseStatusException(
+                        HttpStatus.SERVICE_UNAVAILABLE,
+                        "Inventory service unavailable"
+                    );
+                }
+                if (attempt > 0) {
+                    backoff(attempt);
+                }
+
+                BatchGetItemResponse response = dynamoDb.batchGetItem(
+                    BatchGetItemRequest.builder().requestItems(requestItems).build()
+                );
+                for (Map<String, AttributeValue> item : response.responses().getOrDefault(tableName, List.of())) {
+                    AttributeValue productId = item.get("productId");
+                    if (productId != null && productId.s() != null) {
+                        available.put(productId.s(), parseStock(productId.s(), item.get("stock")));
+                    }
+                }
+                requestItems = response.hasUnprocessedKeys() ? response.unprocessedKeys() : Map.of();
             }
-            return Integer.parseInt(stock.n());
-        } catch (NumberFormatException e) {
-            log.warn("Inventory stock is not numeric for productId={}", inventoryProductId);
-            return 0;
         } catch (DynamoDbException e) {
-            log.error("Inventory lookup failed for productId={}", inventoryProductId, e);
+            log.error("Inventory batch lookup failed for productIds={}", inventoryProductIds, e);
             throw new ResponseStatusException(
                 HttpStatus.SERVICE_UNAVAILABLE,
                 "Inventory service unavailable"
@@ -98,7 +641,28 @@ public class InventoryClient {
         }
     }
 
-    private static String normalizeInventoryProductId(CreateOrderItemRequest item) {
+    private static int parseStock(String inventoryProductId, AttributeValue stock) {
+        if (stock == null || stock.n() == null) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(stock.n());
+        } catch (NumberFormatException e) {
+            log.warn("Inventory stock is not numeric for productId={}", inventoryProductId);
+            return 0;
+        }
+    }
+
+    private static void backoff(int attempt) {
+        try {
+            Thread.sleep(UNPROCESSED_BASE_BACKOFF_MS << (attempt - 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Inventory service unavailable");
+        }
+    }
+
+    static String normalizeInventoryProductId(CreateOrderItemRequest item) {
         String sku = item.getProductSku();
         if (sku != null && !sku.isBlank()) {
             return sku.trim().toLowerCase();
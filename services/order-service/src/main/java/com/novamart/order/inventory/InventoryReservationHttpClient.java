@@ -3,95 +3,431 @@ package com.novamart.order.inventory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.novamart.order.domain.Order;
 import com.novamart.order.domain.OrderItem;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.net.ConnectException;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Asks inventory-service to reserve stock for a placed order over HTTP ({@code POST /inventory/reserve}),
+ * for deployments that run inventory as an HTTP tier instead of an order.placed consumer. Off unless
+ * {@code novamart.inventory.reserve.enabled} is set; such orders are published with
+ * {@code inventoryReservedOverHttp} so the order.placed consumer does not reserve them a second time.
+ *
+ * Calls are sent with {@code sendAsync} and never block the order thread. At most {@code max-in-flight}
+ * reservations are outstanding per replica; beyond that new ones are not sent. Each attempt's
+ * timeout follows the observed latency (smoothed round trip plus four deviations, clamped to
+ * {@code min-timeout-ms}..{@code max-timeout-ms}), so a slow inventory tier is detected in a few hundred
+ * milliseconds instead of seconds. Only attempts that inventory-service cannot have handled are retried,
+ * with full-jitter backoff within {@code deadline-ms}: a refused or timed-out connection and a 503 from the
+ * load balancer. Any other 5xx or a timed-out response may come from a call that already took the stock,
+ * so it fails without a retry. 200 counts as accepted, as does 202 (inventory-service answers it to a
+ * repeated orderId while the first call is still reserving), 409 as out of stock, and no 4xx is retried.
+ * After {@code circuit-failure-threshold} failed attempts in a row the circuit opens and reservations fail
+ * fast until a probe gets through. {@link #submit} sends reservations that were not sent (overloaded or open
+ * circuit) again later, and logs and counts every order whose stock was still not reserved.
+ */
 @Component
 public class InventoryReservationHttpClient {
 
     private static final Logger log = LoggerFactory.getLogger(InventoryReservationHttpClient.class);
 
+    public enum Outcome {
+        /** 200: every item was reserved; or 202: an earlier call for the same order is still reserving it. */
+        ACCEPTED,
+        /** 409: inventory-service did not have the stock for every item; not retried. */
+        OUT_OF_STOCK,
+        /** A 4xx other than 409; not retried. */
+        REJECTED,
+        /** A 5xx, timeout or transport error that was not retried, or retries until attempts or the deadline ran out. */
+        FAILED,
+        /** Not sent because the circuit is open. */
+        SHORT_CIRCUITED,
+        /** Not sent because max-in-flight reservations were already outstanding. */
+        OVERLOADED,
+        /** HTTP reservation is not enabled. */
+        DISABLED
+    }
+
+    public record ReservationResult(Outcome outcome, int status, int attempts) { }
+
     private final ObjectMapper objectMapper;
     private final HttpClient httpClient;
-    private final String reserveUrl;
+    private final URI reserveUri;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final int maxAttempts;
+    private final long deadlineNanos;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final AdaptiveTimeout timeout;
+    private final CircuitBreaker circuitBreaker;
+
+    private final int maxResubmits;
+    private final long resubmitDelayMs;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter retries;
 
     public InventoryReservationHttpClient(
         ObjectMapper objectMapper,
-        @Value("${novamart.inventory.reserve-url:${INVENTORY_RESERVE_URL:}}") String reserveUrl
+        MeterRegistry meterRegistry,
+        @Value("${novamart.inventory.reserve.enabled:${INVENTORY_RESERVE_HTTP_ENABLED:false}}") boolean enabled,
+        @Value("${novamart.inventory.reserve-url:${INVENTORY_RESERVE_URL:}}") String reserveUrl,
+        @Value("${novamart.inventory.reserve.http-version:HTTP_1_1}") HttpClient.Version httpVersion,
+        @Value("${novamart.inventory.reserve.max-in-flight:64}") int maxInFlight,
+        @Value("${novamart.inventory.reserve.min-timeout-ms:250}") long minTimeoutMs,
+        @Value("${novamart.inventory.reserve.max-timeout-ms:2000}") long maxTimeoutMs,
+        @Value("${novamart.inventory.reserve.deadline-ms:5000}") long deadlineMs,
+        @Value("${novamart.inventory.reserve.max-attempts:3}") int maxAttempts,
+        @Value("${novamart.inventory.reserve.backoff-base-ms:50}") long backoffBaseMs,
+        @Value("${novamart.inventory.reserve.backoff-max-ms:1000}") long backoffMaxMs,
+        @Value("${novamart.inventory.reserve.circuit-failure-threshold:5}") int circuitFailureThreshold,
+        @Value("${novamart.inventory.reserve.circuit-open-ms:5000}") long circuitOpenMs,
+        @Value("${novamart.inventory.reserve.max-resubmits:3}") int maxResubmits,
+        @Value("${novamart.inventory.reserve.resubmit-delay-ms:1000}") long resubmitDelayMs
     ) {
         this.objectMapper = objectMapper;
-        this.reserveUrl = reserveUrl == null ? "" : reserveUrl.trim();
+        String trimmedUrl = reserveUrl == null ? "" : reserveUrl.trim();
+        if (enabled && trimmedUrl.isBlank()) {
+            throw new IllegalStateException("novamart.inventory.reserve.enabled is set but novamart.inventory.reserve-url is empty");
+        }
+        if (!enabled && !trimmedUrl.isBlank()) {
+            log.info("Ignoring novamart.inventory.reserve-url: HTTP inventory reservation is not enabled");
+        }
+        this.reserveUri = enabled ? URI.create(trimmedUrl) : null;
+        // The JDK client keeps idle connections open and reuses them; with HTTP_2 it multiplexes requests
+        // over one connection when the server speaks h2 (TLS) and falls back to HTTP/1.1 otherwise.
         this.httpClient = HttpClient.newBuilder()
-            .connectTimeout(Duration.ofSeconds(2))
+            .version(httpVersion)
+            .connectTimeout(Duration.ofMillis(maxTimeoutMs))
             .build();
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.inFlight = new Semaphore(this.maxInFlight);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.deadlineNanos = TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        this.backoffBaseMs = Math.max(1, backoffBaseMs);
+        this.backoffMaxMs = Math.max(this.backoffBaseMs, backoffMaxMs);
+        this.timeout = new AdaptiveTimeout(Duration.ofMillis(minTimeoutMs), Duration.ofMillis(maxTimeoutMs));
+        this.circuitBreaker = new CircuitBreaker(circuitFailureThreshold, Duration.ofMillis(circuitOpenMs));
+        this.maxResubmits = Math.max(0, maxResubmits);
+        this.resubmitDelayMs = Math.max(1, resubmitDelayMs);
+
+        this.meterRegistry = meterRegistry;
+        this.retries = Counter.builder("novamart.inventory.reserve.retries")
+            .description("Inventory reserve attempts retried after a refused connection or a 503")
+            .register(meterRegistry);
+        Gauge.builder("novamart.inventory.reserve.in_flight", this, client -> client.maxInFlight - client.inFlight.availablePermits())
+            .description("Inventory reservations currently outstanding")
+            .register(meterRegistry);
+        Gauge.builder("novamart.inventory.reserve.circuit_open", circuitBreaker, breaker -> breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+            .description("1 while the inventory reserve circuit is open or half-open")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return reserveUri != null;
+    }
+
+    /**
+     * Reserves stock for a committed order without waiting for it. A reservation that was not sent because
+     * too many were in flight or the circuit was open is tried again after {@code resubmit-delay-ms}, up to
+     * {@code max-resubmits} times. Orders whose stock still was not reserved (other than for lack of stock,
+     * which inventory-service reports itself) are logged with their id and counted in
+     * {@code novamart.inventory.reserve.unreconciled{outcome}}.
+     */
+    public void submit(Order order) {
+        if (reserveUri != null) {
+            submit(new InventoryReserveRequest(order), 0);
+        }
+    }
+
+    private void submit(InventoryReserveRequest request, int resubmits) {
+        reserve(request).thenAccept(reservation -> {
+            Outcome outcome = reservation.outcome();
+            boolean unsent = outcome == Outcome.OVERLOADED || outcome == Outcome.SHORT_CIRCUITED;
+            if (unsent && resubmits < maxResubmits) {
+                CompletableFuture.delayedExecutor(resubmitDelayMs, TimeUnit.MILLISECONDS)
+                    .execute(() -> submit(request, resubmits + 1));
+            } else if (unsent || outcome == Outcome.FAILED || outcome == Outcome.REJECTED) {
+                Counter.builder("novamart.inventory.reserve.unreconciled")
+                    .description("Orders whose HTTP inventory reservation gave up without reserving the stock")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+                log.error(
+                    "Inventory not reserved for orderId={} (outcome={}, status={}, resubmits={}); needs reconciliation",
+                    request.orderId(),
+                    outcome.name().toLowerCase(),
+                    reservation.status(),
+                    resubmits
+                );
+            }
+        });
     }
 
-    public void reserveInventoryIfConfigured(Order order) {
-        if (reserveUrl.isBlank()) {
+    /**
+     * Starts the reservation for {@code order} and returns its result; never completes exceptionally.
+     * Returns an already completed future when HTTP reservation is not enabled.
+     */
+    public CompletableFuture<ReservationResult> reserve(Order order) {
+        if (reserveUri == null) {
+            return CompletableFuture.completedFuture(new ReservationResult(Outcome.DISABLED, 0, 0));
+        }
+        return reserve(new InventoryReserveRequest(order));
+    }
+
+    private CompletableFuture<ReservationResult> reserve(InventoryReserveRequest request) {
+        long startedAt = System.nanoTime();
+        if (!inFlight.tryAcquire()) {
+            log.warn("Inventory reserve skipped for orderId={}: too many reservations in flight", request.orderId());
+            return CompletableFuture.completedFuture(record(new ReservationResult(Outcome.OVERLOADED, 0, 0), startedAt));
+        }
+
+        return reserveSingle(request).thenApply(reservation -> {
+            inFlight.release();
+            return record(reservation, startedAt);
+        });
+    }
+
+    private CompletableFuture<ReservationResult> reserveSingle(InventoryReserveRequest request) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(new InventoryReserveEvent(request));
+        } catch (Exception e) {
+            log.warn("Failed to serialize inventory reserve request for orderId={}", request.orderId(), e);
+            return CompletableFuture.completedFuture(new ReservationResult(Outcome.FAILED, 0, 0));
+        }
+        return call(reserveUri, body, "orderId=" + request.orderId())
+            .thenApply(call -> new ReservationResult(call.outcome(), call.status(), call.attempts()));
+    }
+
+    /**
+     * Sends {@code body} to {@code uri} with the adaptive timeout, retrying attempts that never reached
+     * inventory-service within the deadline and behind the circuit breaker. Never completes exceptionally.
+     */
+    private CompletableFuture<CallResult> call(URI uri, byte[] body, String subject) {
+        CompletableFuture<CallResult> result = new CompletableFuture<>();
+        attempt(uri, body, subject, 1, System.nanoTime() + deadlineNanos, result);
+        return result;
+    }
+
+    private void attempt(URI uri, byte[] body, String subject, int attempt, long deadline, CompletableFuture<CallResult> result) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            result.complete(new CallResult(Outcome.FAILED, 0, attempt - 1));
+            return;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            result.complete(new CallResult(Outcome.SHORT_CIRCUITED, 0, attempt - 1));
             return;
         }
 
+        Duration attemptTimeout = timeout.current();
+        if (attemptTimeout.toNanos() > remaining) {
+            attemptTimeout = Duration.ofNanos(remaining);
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+            .uri(uri)
+            .timeout(attemptTimeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+
+        long sentAt = System.nanoTime();
+        long attemptTimeoutNanos = attemptTimeout.toNanos();
+        CompletableFuture<HttpResponse<String>> pending;
         try {
-            String body = objectMapper.writeValueAsString(new InventoryReserveEvent(new InventoryReserveRequest(order)));
-            HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(reserveUrl))
-                .timeout(Duration.ofSeconds(10))
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(body))
-                .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            int status = response.statusCode();
-            if (status == 200 || status == 409) {
-                log.info("Inventory reserve triggered via HTTP (status={}) for orderId={}", status, order.getId());
+            pending = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            log.warn("Inventory reserve HTTP call failed for {}: {}", subject, e.toString());
+            result.complete(new CallResult(Outcome.FAILED, 0, attempt));
+            return;
+        }
+        pending.whenComplete((response, failure) -> {
+            if (failure == null) {
+                timeout.record(System.nanoTime() - sentAt);
+                int status = response.statusCode();
+                if (status == 503) {
+                    // The load balancer found no healthy target, so the reservation was not handled.
+                    circuitBreaker.onFailure();
+                    retryOrFail(uri, body, subject, attempt, deadline, result, status);
+                    return;
+                }
+                if (status >= 500) {
+                    circuitBreaker.onFailure();
+                    log.warn("Inventory reserve failed with status={} for {}; not retried", status, subject);
+                    result.complete(new CallResult(Outcome.FAILED, status, attempt));
+                    return;
+                }
+
+                circuitBreaker.onSuccess();
+                if (status == 200 || status == 202) {
+                    log.debug("Inventory reserve accepted for {}", subject);
+                    result.complete(new CallResult(Outcome.ACCEPTED, status, attempt));
+                } else if (status == 409) {
+                    log.warn("Inventory reserve out of stock for {}, body={}", subject, response.body());
+                    result.complete(new CallResult(Outcome.OUT_OF_STOCK, status, attempt));
+                } else {
+                    log.warn("Inventory reserve rejected with status={} for {}, body={}", status, subject, response.body());
+                    result.complete(new CallResult(Outcome.REJECTED, status, attempt));
+                }
                 return;
             }
 
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            circuitBreaker.onFailure();
+            if (neverSent(cause)) {
+                retryOrFail(uri, body, subject, attempt, deadline, result, 0);
+            } else if (cause instanceof HttpTimeoutException) {
+                // Count the timeout as a slow sample so the next calls get more room. The request may have
+                // been handled, so it is not sent again.
+                timeout.record(attemptTimeoutNanos);
+                log.warn(
+                    "Inventory reserve timed out after {} ms for {}; not retried",
+                    TimeUnit.NANOSECONDS.toMillis(attemptTimeoutNanos),
+                    subject
+                );
+                result.complete(new CallResult(Outcome.FAILED, 0, attempt));
+            } else {
+                log.warn("Inventory reserve HTTP call failed for {}: {}", subject, cause.toString());
+                result.complete(new CallResult(Outcome.FAILED, 0, attempt));
+            }
+        });
+    }
+
+    private void retryOrFail(
+        URI uri,
+        byte[] body,
+        String subject,
+        int attempt,
+        long deadline,
+        CompletableFuture<CallResult> result,
+        int status
+    ) {
+        long delayMs = backoffMillis(attempt);
+        long retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        if (attempt >= maxAttempts || retryAt + timeout.minimum().toNanos() > deadline) {
             log.warn(
-                "Inventory reserve HTTP returned unexpected status={} for orderId={}, body={}",
-                status,
-                order.getId(),
-                response.body()
+                "Inventory reserve failed after {} attempt(s) for {} (last status={})",
+                attempt,
+                subject,
+                status == 0 ? "connect failure" : status
             );
-        } catch (Exception e) {
-            log.warn("Inventory reserve HTTP call failed for orderId={}", order.getId(), e);
+            result.complete(new CallResult(Outcome.FAILED, status, attempt));
+            return;
+        }
+
+        retries.increment();
+        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS)
+            .execute(() -> attempt(uri, body, subject, attempt + 1, deadline, result));
+    }
+
+    /**
+     * Whether the attempt failed before a connection was established, so inventory-service never saw it.
+     */
+    private static boolean neverSent(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof HttpConnectTimeoutException) {
+                return true;
+            }
         }
+        return false;
     }
 
-    private static long toCents(BigDecimal amount) {
-        if (amount == null) return 0;
-        return amount
-            .multiply(BigDecimal.valueOf(100))
-            .setScale(0, RoundingMode.HALF_UP)
-            .longValue();
+    /**
+     * Full jitter: uniformly random between zero and the exponential backoff for this attempt.
+     */
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
     }
 
-    private record InventoryReserveEvent(InventoryReserveRequest detail) { }
+    private ReservationResult record(ReservationResult reservation, long startedAt) {
+        Timer.builder("novamart.inventory.reserve")
+            .description("Inventory reservations over HTTP, including retries")
+            .tag("outcome", reservation.outcome().name().toLowerCase())
+            .register(meterRegistry)
+            .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        return reservation;
+    }
+
+    /**
+     * Per-attempt timeout from the smoothed round trip and its mean deviation, as TCP derives its
+     * retransmission timeout. Starts at the maximum until the first response is seen.
+     */
+    static final class AdaptiveTimeout {
+
+        private final long minNanos;
+        private final long maxNanos;
+        private double smoothedNanos = -1;
+        private double deviationNanos;
+
+        AdaptiveTimeout(Duration minimum, Duration maximum) {
+            this.minNanos = minimum.toNanos();
+            this.maxNanos = Math.max(minNanos, maximum.toNanos());
+        }
+
+        synchronized void record(long sampleNanos) {
+            if (smoothedNanos < 0) {
+                smoothedNanos = sampleNanos;
+                deviationNanos = sampleNanos / 2.0;
+                return;
+            }
+            deviationNanos = 0.75 * deviationNanos + 0.25 * Math.abs(smoothedNanos - sampleNanos);
+            smoothedNanos = 0.875 * smoothedNanos + 0.125 * sampleNanos;
+        }
+
+        synchronized Duration current() {
+            if (smoothedNanos < 0) {
+                return Duration.ofNanos(maxNanos);
+            }
+            long nanos = (long) (smoothedNanos + 4 * deviationNanos);
+            return Duration.ofNanos(Math.max(minNanos, Math.min(maxNanos, nanos)));
+        }
+
+        Duration minimum() {
+            return Duration.ofNanos(minNanos);
+        }
+    }
+
+    private record CallResult(Outcome outcome, int status, int attempts) { }
+
+    record InventoryReserveEvent(InventoryReserveRequest detail) { }
 
-    private record InventoryReserveRequest(
+    record InventoryReserveRequest(
         String orderId,
         String customerId,
         String userId,
         Long totalCents,
         List<Item> items
     ) {
-        private InventoryReserveRequest(Order order) {
+        InventoryReserveRequest(Order order) {
             this(
                 String.valueOf(order.getId()),
                 order.getCustomerId(),
                 order.getCustomerId(),
-                toCents(order.getTotalAmount()),
+                order.getTotalAmount() == null ? 0 : order.getTotalAmount().minorUnits(),
                 order.getItems().stream().map(Item::new).toList()
             );
         }
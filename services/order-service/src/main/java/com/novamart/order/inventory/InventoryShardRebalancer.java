@@ -0,0 +1,69 @@
+package com.novamart.order.inventory;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.novamart.order.inventory.InventoryClient.RebalanceOutcome;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Periodically levels the shards of every sharded product, so reservations keep finding stock on the
+ * first shard they try and restocks written to the unsharded item become reservable.
+ * {@code novamart.inventory.shards.rebalance{outcome}} counts runs per product.
+ */
+@Component
+public class InventoryShardRebalancer {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryShardRebalancer.class);
+
+    private final InventoryClient inventoryClient;
+    private final InventoryShards shards;
+    private final boolean enabled;
+    private final Map<RebalanceOutcome, Counter> outcomes = new EnumMap<>(RebalanceOutcome.class);
+    private final Counter failures;
+
+    public InventoryShardRebalancer(
+        InventoryClient inventoryClient,
+        InventoryShards shards,
+        @Value("${novamart.inventory.shards.rebalance.enabled:true}") boolean enabled,
+        MeterRegistry meterRegistry
+    ) {
+        this.inventoryClient = inventoryClient;
+        this.shards = shards;
+        this.enabled = enabled;
+        for (RebalanceOutcome outcome : RebalanceOutcome.values()) {
+            outcomes.put(outcome, rebalanceCounter(meterRegistry, outcome.name().toLowerCase()));
+        }
+        this.failures = rebalanceCounter(meterRegistry, "failed");
+    }
+
+    @Scheduled(fixedDelayString = "${novamart.inventory.shards.rebalance.interval-ms:30000}")
+    public void rebalance() {
+        if (!enabled || !shards.isEnabled()) {
+            return;
+        }
+        for (String inventoryProductId : shards.products()) {
+            try {
+                outcomes.get(inventoryClient.rebalanceShards(inventoryProductId)).increment();
+            } catch (Exception e) {
+                failures.increment();
+                log.warn("Failed to rebalance shards for productId={}: {}", inventoryProductId, e.getMessage());
+            }
+        }
+    }
+
+    private static Counter rebalanceCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("novamart.inventory.shards.rebalance")
+            .description("Shard rebalancing runs per product by outcome")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,113 @@
+package com.novamart.order.inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sharded-counter layout for hot products.
+ *
+ * The stock of a sharded product is spread over {@code count} items keyed {@code <productId>#<shard>}, so
+ * concurrent reservations land on different partitions instead of all updating one item. The unsharded
+ * item keeps its key and only collects stock written to it directly (seeding, restocks) until the
+ * rebalancer moves it into the shards. Reads sum every item; reservations start at a random shard and fall
+ * over to the others. Products that are not listed keep the single-item layout.
+ */
+@Component
+public class InventoryShards {
+
+    /**
+     * Keeps a sharded product's reads and writes within one BatchGetItem and one TransactWriteItems.
+     */
+    static final int MAX_SHARDS = 32;
+
+    private static final String SHARD_SEPARATOR = "#";
+
+    private final boolean enabled;
+    private final int count;
+    private final Set<String> products;
+    private final Counter fallovers;
+
+    public InventoryShards(
+        @Value("${novamart.inventory.shards.enabled:${INVENTORY_SHARDS_ENABLED:false}}") boolean enabled,
+        @Value("${novamart.inventory.shards.count:${INVENTORY_SHARD_COUNT:8}}") int count,
+        @Value("${novamart.inventory.shards.products:${INVENTORY_SHARDED_PRODUCTS:}}") String products,
+        MeterRegistry meterRegistry
+    ) {
+        this.count = Math.max(1, Math.min(MAX_SHARDS, count));
+        this.products = new LinkedHashSet<>();
+        Arrays.stream(products.split(","))
+            .map(product -> product.trim().toLowerCase())
+            .filter(product -> !product.isEmpty())
+            .forEach(this.products::add);
+        this.enabled = enabled && !this.products.isEmpty();
+        this.fallovers = Counter.builder("novamart.inventory.shards.fallover")
+            .description("Reservations retried on another shard after a short or throttled shard")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Set<String> products() {
+        return enabled ? Set.copyOf(products) : Set.of();
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isSharded(String inventoryProductId) {
+        return enabled && products.contains(inventoryProductId);
+    }
+
+    /**
+     * Every item holding stock for the product: the shards, then the unsharded item.
+     */
+    public List<String> itemKeys(String inventoryProductId) {
+        if (!isSharded(inventoryProductId)) {
+            return List.of(inventoryProductId);
+        }
+        List<String> keys = new ArrayList<>(count + 1);
+        for (int shard = 0; shard < count; shard++) {
+            keys.add(shardKey(inventoryProductId, shard));
+        }
+        keys.add(inventoryProductId);
+        return keys;
+    }
+
+    /**
+     * Same items as {@link #itemKeys}, with the shards rotated to start at a random one so concurrent
+     * reservations spread over them. The unsharded item stays last.
+     */
+    List<String> reservationOrder(String inventoryProductId) {
+        if (!isSharded(inventoryProductId)) {
+            return List.of(inventoryProductId);
+        }
+        int start = ThreadLocalRandom.current().nextInt(count);
+        List<String> keys = new ArrayList<>(count + 1);
+        for (int i = 0; i < count; i++) {
+            keys.add(shardKey(inventoryProductId, (start + i) % count));
+        }
+        keys.add(inventoryProductId);
+        return keys;
+    }
+
+    static String shardKey(String inventoryProductId, int shard) {
+        return inventoryProductId + SHARD_SEPARATOR + shard;
+    }
+
+    void recordFallover() {
+        fallovers.increment();
+    }
+}
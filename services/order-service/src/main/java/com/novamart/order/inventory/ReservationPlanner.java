@@ -0,0 +1,148 @@
+package com.novamart.order.inventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which inventory items one reservation attempt writes to, learning from the attempts that failed.
+ *
+ * An unsharded product is always taken from its own item. A sharded product is first taken whole from one
+ * shard, in the random order given by {@link InventoryShards#reservationOrder}; a shard whose condition
+ * failed reports its stock and is skipped afterwards, and a throttled one is skipped until every other item
+ * has been tried. Once every item of the product has reported its stock and no single one can cover the
+ * quantity, the quantity is split over the items with the most stock. A product whose items add up to less
+ * than requested ends the reservation with an {@link InsufficientStockException}.
+ */
+final class ReservationPlanner {
+
+    private final Map<String, Integer> requestedByProductId;
+    private final Map<String, List<String>> itemKeysByProductId = new LinkedHashMap<>();
+    private final Map<String, Integer> stockByItemKey = new HashMap<>();
+    private final Set<String> throttled = new HashSet<>();
+    private final Set<String> shardedItemKeys = new HashSet<>();
+
+    ReservationPlanner(Map<String, Integer> requestedByProductId, InventoryShards shards) {
+        this.requestedByProductId = requestedByProductId;
+        for (String inventoryProductId : requestedByProductId.keySet()) {
+            List<String> itemKeys = shards.reservationOrder(inventoryProductId);
+            itemKeysByProductId.put(inventoryProductId, itemKeys);
+            if (itemKeys.size() > 1) {
+                shardedItemKeys.addAll(itemKeys);
+            }
+        }
+    }
+
+    /**
+     * Attempts after which the reservation gives up: enough to visit every item of every sharded product,
+     * plus one.
+     */
+    int maxAttempts() {
+        return shardedItemKeys.size() + 1;
+    }
+
+    /**
+     * Quantities to take by item key in the next attempt.
+     *
+     * @throws InsufficientStockException when the stock reported so far cannot cover some product
+     */
+    Map<String, Integer> nextAttempt() {
+        Map<String, Integer> writes = new LinkedHashMap<>();
+        List<InsufficientStockItem> insufficient = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : requestedByProductId.entrySet()) {
+            String inventoryProductId = entry.getKey();
+            int requested = entry.getValue();
+            List<String> itemKeys = itemKeysByProductId.get(inventoryProductId);
+
+            String untried = firstUntried(itemKeys);
+            if (untried != null) {
+                writes.put(untried, requested);
+                continue;
+            }
+
+            int available = 0;
+            for (String itemKey : itemKeys) {
+                available += Math.max(0, stockByItemKey.getOrDefault(itemKey, 0));
+            }
+            if (available >= requested) {
+                split(itemKeys, requested, writes);
+                continue;
+            }
+
+            String throttledItem = firstThrottled(itemKeys);
+            if (throttledItem != null) {
+                // Only throttled items are left unread; one of them may still hold the stock.
+                throttled.remove(throttledItem);
+                writes.put(throttledItem, requested);
+                continue;
+            }
+            insufficient.add(new InsufficientStockItem(inventoryProductId, requested, available));
+        }
+        if (!insufficient.isEmpty()) {
+            throw new InsufficientStockException(insufficient);
+        }
+        return writes;
+    }
+
+    /**
+     * Records the stock of items whose {@code stock >= :q} condition failed.
+     */
+    void recordStock(Map<String, Integer> stock) {
+        stockByItemKey.putAll(stock);
+    }
+
+    /**
+     * Marks throttled items and returns whether any of them is a shard, i.e. whether another attempt can
+     * route around them.
+     */
+    boolean recordThrottled(Collection<String> itemKeys) {
+        boolean shard = false;
+        for (String itemKey : itemKeys) {
+            if (shardedItemKeys.contains(itemKey)) {
+                throttled.add(itemKey);
+                shard = true;
+            }
+        }
+        return shard;
+    }
+
+    private String firstUntried(List<String> itemKeys) {
+        for (String itemKey : itemKeys) {
+            if (!stockByItemKey.containsKey(itemKey) && !throttled.contains(itemKey)) {
+                return itemKey;
+            }
+        }
+        return null;
+    }
+
+    private String firstThrottled(List<String> itemKeys) {
+        for (String itemKey : itemKeys) {
+            if (throttled.contains(itemKey)) {
+                return itemKey;
+            }
+        }
+        return null;
+    }
+
+    private void split(List<String> itemKeys, int requested, Map<String, Integer> writes) {
+        List<String> byStock = new ArrayList<>(itemKeys);
+        byStock.sort(Comparator.comparing((String itemKey) -> stockByItemKey.getOrDefault(itemKey, 0)).reversed());
+        int remaining = requested;
+        for (String itemKey : byStock) {
+            int take = Math.min(remaining, stockByItemKey.getOrDefault(itemKey, 0));
+            if (take > 0) {
+                writes.put(itemKey, take);
+                remaining -= take;
+            }
+            if (remaining == 0) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.novamart.order.inventory;
+
+import java.util.Map;
+
+/**
+ * Stock taken from the inventory table for one order, by inventory product id, so it can be given back if
+ * the order is not saved.
+ */
+public record StockReservation(Map<String, Integer> quantitiesByProductId) {
+
+    static final StockReservation NONE = new StockReservation(Map.of());
+
+    public boolean isEmpty() {
+        return quantitiesByProductId.isEmpty();
+    }
+}
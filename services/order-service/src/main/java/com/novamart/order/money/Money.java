@@ -0,0 +1,140 @@
+package com.novamart.order.money;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * A fixed-point amount of money: a whole number of minor units (cents) plus its currency.
+ *
+ * Arithmetic is plain {@code long} arithmetic with overflow checks, so pricing an order doesn't allocate a
+ * BigDecimal per operation. Amounts are read and written as plain decimal strings ("19.99") and converted
+ * to and from BigDecimal only at the edges that need it (the numeric database columns).
+ * Every amount in the shop is currently in {@link #DEFAULT_CURRENCY}.
+ */
+public record Money(long minorUnits, Currency currency) implements Comparable<Money> {
+
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    private static final Money ZERO = new Money(0, DEFAULT_CURRENCY);
+
+    public Money {
+        Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money zero() {
+        return ZERO;
+    }
+
+    public static Money ofMinor(long minorUnits) {
+        return minorUnits == 0 ? ZERO : new Money(minorUnits, DEFAULT_CURRENCY);
+    }
+
+    /**
+     * Converts a decimal amount; fails if it has more fraction digits than the currency allows.
+     */
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofMinor(amount.movePointRight(DEFAULT_CURRENCY.getDefaultFractionDigits()).longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not a whole number of cents: " + amount, e);
+        }
+    }
+
+    /**
+     * Parses a plain decimal such as {@code "19.99"}, {@code "-5"}, {@code ".5"} or {@code "19.990"} without
+     * going through BigDecimal. Fraction digits beyond what the currency allows must be zeros, as in
+     * {@link #of(BigDecimal)}; exponents are rejected. Amounts that don't fit in a {@code long} of minor
+     * units throw ArithmeticException.
+     */
+    public static Money parse(CharSequence text) {
+        int fractionDigits = DEFAULT_CURRENCY.getDefaultFractionDigits();
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+
+        long units = 0;
+        int digits = 0;
+        int fraction = -1;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && fraction < 0) {
+                fraction = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Not a decimal amount: " + text);
+            }
+            if (fraction >= 0 && ++fraction > fractionDigits) {
+                if (c != '0') {
+                    throw new IllegalArgumentException("Not a whole number of cents: " + text);
+                }
+                digits++;
+                continue;
+            }
+            units = Math.addExact(Math.multiplyExact(units, 10), c - '0');
+            digits++;
+        }
+        if (digits == 0) {
+            throw new IllegalArgumentException("Not a decimal amount: " + text);
+        }
+        for (int scale = Math.max(fraction, 0); scale < fractionDigits; scale++) {
+            units = Math.multiplyExact(units, 10);
+        }
+        return ofMinor(negative ? -units : units);
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return other.minorUnits == 0 ? this : new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long quantity) {
+        return quantity == 1 ? this : new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    /**
+     * The amount as a plain decimal, e.g. {@code "19.99"}; this is also its JSON form.
+     */
+    @Override
+    public String toString() {
+        int fractionDigits = currency.getDefaultFractionDigits();
+        if (fractionDigits <= 0) {
+            return Long.toString(minorUnits);
+        }
+        String digits = Long.toString(Math.abs(minorUnits));
+        StringBuilder text = new StringBuilder(digits.length() + fractionDigits + 3);
+        if (minorUnits < 0) {
+            text.append('-');
+        }
+        int whole = digits.length() - fractionDigits;
+        if (whole <= 0) {
+            text.append("0.");
+            text.append("0".repeat(-whole));
+            text.append(digits);
+        } else {
+            text.append(digits, 0, whole).append('.').append(digits, whole, digits.length());
+        }
+        return text.toString();
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.novamart.order.money;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+/**
+ * Reads and writes {@link Money} as a JSON number ({@code 19.99}), the same wire format the BigDecimal
+ * fields had, so API clients and event consumers see no change. Strings ({@code "19.99"}) are accepted too.
+ */
+@JsonComponent
+public class MoneyJsonComponent {
+
+    public static class Serializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(value.toString());
+        }
+    }
+
+    public static class Deserializer extends JsonDeserializer<Money> {
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            try {
+                if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_STRING) {
+                    return Money.parse(parser.getText().trim());
+                }
+                if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                    String text = parser.getText();
+                    // Exponent notation is rare enough to take the BigDecimal path.
+                    return text.indexOf('e') >= 0 || text.indexOf('E') >= 0
+                        ? Money.of(parser.getDecimalValue())
+                        : Money.parse(text);
+                }
+            } catch (IllegalArgumentException | ArithmeticException e) {
+                return (Money) context.handleWeirdStringValue(Money.class, parser.getText(), e.getMessage());
+            }
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+    }
+}
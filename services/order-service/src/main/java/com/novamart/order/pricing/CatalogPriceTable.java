@@ -0,0 +1,207 @@
+package com.novamart.order.pricing;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novamart.order.dto.CreateOrderItemRequest;
+import com.novamart.order.money.Money;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Local copy of catalog-service's price list (catalog product id to price in cents), used to price orders
+ * without a call to the catalog per order.
+ *
+ * The list is polled from {@code GET /products/prices} with If-None-Match, so an unchanged catalog costs a
+ * 304. If the catalog is down, orders keep being priced from the last list received; only a replica that
+ * has never loaded a list refuses orders. When disabled, client-submitted unit prices are used as before.
+ */
+@Component
+public class CatalogPriceTable {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogPriceTable.class);
+
+    private final boolean enabled;
+    private final URI pricesUri;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Table table;
+
+    private final Counter updated;
+    private final Counter unchanged;
+    private final Counter failed;
+
+    public CatalogPriceTable(
+        @Value("${novamart.pricing.enabled:${ORDER_PRICING_ENABLED:false}}") boolean enabled,
+        @Value("${novamart.pricing.catalog-url:${CATALOG_SERVICE_URL:http://catalog-service:8080}}") String catalogUrl,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry
+    ) {
+        this.enabled = enabled;
+        this.pricesUri = URI.create(catalogUrl.replaceAll("/+$", "") + "/products/prices");
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+        this.updated = refreshCounter(meterRegistry, "updated");
+        this.unchanged = refreshCounter(meterRegistry, "unchanged");
+        this.failed = refreshCounter(meterRegistry, "failed");
+        Gauge.builder("novamart.pricing.table.age", this, CatalogPriceTable::ageSeconds)
+            .description("Time since the catalog price list was last confirmed current")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Returns the unit price in cents for each item, in order.
+     *
+     * With pricing enabled, prices come from the catalog list; a submitted unit price that differs from it
+     * fails the whole order with a {@link PriceMismatchException} listing every stale item, so the client
+     * can show the new prices. Without it, the submitted prices are used.
+     */
+    public long[] unitPricesCents(List<CreateOrderItemRequest> items) {
+        long[] unitPrices = new long[items.size()];
+        if (!enabled) {
+            for (int i = 0; i < items.size(); i++) {
+                Money submitted = items.get(i).getUnitPrice();
+                if (submitted == null) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "unitPrice is required");
+                }
+                unitPrices[i] = submitted.minorUnits();
+            }
+            return unitPrices;
+        }
+
+        Table current = table;
+        if (current == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Catalog prices unavailable");
+        }
+
+        List<PriceMismatchItem> mismatches = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            CreateOrderItemRequest item = items.get(i);
+            Long priceCents = current.pricesCents().get(item.getProductId());
+            if (priceCents == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown product " + item.getProductId());
+            }
+            if (item.getUnitPrice() != null && item.getUnitPrice().minorUnits() != priceCents) {
+                mismatches.add(new PriceMismatchItem(item.getProductId(), item.getUnitPrice(), Money.ofMinor(priceCents)));
+            }
+            unitPrices[i] = priceCents;
+        }
+        if (!mismatches.isEmpty()) {
+            throw new PriceMismatchException(mismatches);
+        }
+        return unitPrices;
+    }
+
+    /**
+     * Starts a refresh and returns without waiting for it: the request and the parsing run on the HTTP
+     * client's threads, so a slow or hanging catalog never holds the scheduler thread that the other
+     * {@code @Scheduled} jobs share. A refresh still in progress when the next one is due is left to finish.
+     */
+    @Scheduled(fixedDelayString = "${novamart.pricing.refresh-interval-ms:15000}")
+    public void refresh() {
+        if (!enabled || !refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        Table current = table;
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder()
+                .uri(pricesUri)
+                .timeout(Duration.ofSeconds(10))
+                .header("Accept", "application/json")
+                .GET();
+            if (current != null && current.etag() != null) {
+                request.header("If-None-Match", current.etag());
+            }
+
+            httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .whenComplete((response, error) -> {
+                    try {
+                        if (error != null) {
+                            failed.increment();
+                            log.warn("Failed to refresh catalog price list from {}: {}", pricesUri, error.getMessage());
+                        } else {
+                            apply(current, response);
+                        }
+                    } finally {
+                        refreshing.set(false);
+                    }
+                });
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            failed.increment();
+            log.warn("Failed to refresh catalog price list from {}: {}", pricesUri, e.getMessage());
+        }
+    }
+
+    private void apply(Table current, HttpResponse<byte[]> response) {
+        if (response.statusCode() == 304 && current != null) {
+            table = new Table(current.pricesCents(), current.etag(), System.currentTimeMillis());
+            unchanged.increment();
+            return;
+        }
+        if (response.statusCode() != 200) {
+            failed.increment();
+            log.warn("Catalog price list request returned status={}", response.statusCode());
+            return;
+        }
+
+        try {
+            List<PriceListEntry> entries = objectMapper.readValue(response.body(), new TypeReference<>() { });
+            Map<Long, Long> pricesCents = new HashMap<>(entries.size() * 2);
+            for (PriceListEntry entry : entries) {
+                if (entry.id() != null && entry.price() != null) {
+                    pricesCents.put(entry.id(), entry.price().minorUnits());
+                }
+            }
+            String etag = response.headers().firstValue("ETag").orElse(null);
+            table = new Table(pricesCents, etag, System.currentTimeMillis());
+            updated.increment();
+            log.info("Loaded catalog price list with {} products", pricesCents.size());
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Failed to parse catalog price list from {}: {}", pricesUri, e.getMessage());
+        }
+    }
+
+    private double ageSeconds() {
+        Table current = table;
+        return current == null ? 0 : (System.currentTimeMillis() - current.confirmedAtMillis()) / 1000.0;
+    }
+
+    private static Counter refreshCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("novamart.pricing.refresh")
+            .description("Catalog price list refreshes by outcome")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private record Table(Map<Long, Long> pricesCents, String etag, long confirmedAtMillis) { }
+
+    private record PriceListEntry(Long id, String sku, Money price) { }
+}
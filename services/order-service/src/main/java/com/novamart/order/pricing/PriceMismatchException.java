@@ -0,0 +1,17 @@
+package com.novamart.order.pricing;
+
+import java.util.List;
+
+public class PriceMismatchException extends RuntimeException {
+
+    private final List<PriceMismatchItem> items;
+
+    public PriceMismatchException(List<PriceMismatchItem> items) {
+        super("Price mismatch");
+        this.items = items;
+    }
+
+    public List<PriceMismatchItem> getItems() {
+        return items;
+    }
+}
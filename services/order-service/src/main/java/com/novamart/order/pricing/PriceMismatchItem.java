@@ -0,0 +1,5 @@
+package com.novamart.order.pricing;
+
+import com.novamart.order.money.Money;
+
+public record PriceMismatchItem(Long productId, Money submitted, Money current) {}
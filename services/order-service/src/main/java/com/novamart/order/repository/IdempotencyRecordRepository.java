@@ -0,0 +1,23 @@
+package com.novamart.order.repository;
+
+import java.time.OffsetDateTime;
+
+import com.novamart.order.domain.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Spring Data JPA repository for stored Idempotency-Key responses.
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") OffsetDateTime cutoff);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.createdAt < :cutoff")
+    int deleteExpired(@Param("id") String id, @Param("cutoff") OffsetDateTime cutoff);
+}
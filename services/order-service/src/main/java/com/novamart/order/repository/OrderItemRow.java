@@ -0,0 +1,16 @@
+package com.novamart.order.repository;
+
+import com.novamart.order.money.Money;
+
+/**
+ * Flat order item columns, tagged with their order id, selected with a JPQL constructor expression.
+ */
+public record OrderItemRow(
+    Long orderId,
+    Long id,
+    Long productId,
+    String productSku,
+    Integer quantity,
+    Money unitPrice
+) {
+}
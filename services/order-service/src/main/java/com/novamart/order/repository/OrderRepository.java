@@ -1,15 +1,68 @@
 package com.novamart.order.repository;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 import com.novamart.order.domain.Order;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 /**
  * Spring Data JPA repository for orders.
+ *
+ * Reads go through flat constructor-expression projections ({@link OrderRow}, {@link OrderItemRow}) rather
+ * than entities, so no managed instances or dirty-checking snapshots are created. Listings are
+ * keyset-paginated on (createdAt, id), newest first: the page's ids are selected first, then their orders
+ * and items are read with one query each.
  */
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
-    List<Order> findByCustomerId(String customerId);
-}
+    @Query("""
+        select new com.novamart.order.repository.OrderRow(o.id, o.customerId, o.status, o.totalAmount, o.createdAt)
+        from Order o
+        where o.id in :ids
+        """)
+    List<OrderRow> findRowsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+        select new com.novamart.order.repository.OrderItemRow(
+            i.order.id, i.id, i.productId, i.productSku, i.quantity, i.unitPrice)
+        from OrderItem i
+        where i.order.id in :orderIds
+        order by i.id
+        """)
+    List<OrderItemRow> findItemRowsByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("""
+        select o.id from Order o
+        where o.customerId = :customerId
+        order by o.createdAt desc, o.id desc
+        """)
+    List<Long> findPageIdsByCustomerId(@Param("customerId") String customerId, Limit limit);
 
+    @Query("""
+        select o.id from Order o
+        where o.customerId = :customerId
+          and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+        order by o.createdAt desc, o.id desc
+        """)
+    List<Long> findPageIdsByCustomerIdAfter(
+        @Param("customerId") String customerId,
+        @Param("createdAt") OffsetDateTime createdAt,
+        @Param("id") Long id,
+        Limit limit
+    );
+
+    @Query("select o.id from Order o order by o.createdAt desc, o.id desc")
+    List<Long> findPageIds(Limit limit);
+
+    @Query("""
+        select o.id from Order o
+        where o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id)
+        order by o.createdAt desc, o.id desc
+        """)
+    List<Long> findPageIdsAfter(@Param("createdAt") OffsetDateTime createdAt, @Param("id") Long id, Limit limit);
+}
@@ -0,0 +1,18 @@
+package com.novamart.order.repository;
+
+import java.time.OffsetDateTime;
+
+import com.novamart.order.domain.OrderStatus;
+import com.novamart.order.money.Money;
+
+/**
+ * Flat order columns selected with a JPQL constructor expression.
+ */
+public record OrderRow(
+    Long id,
+    String customerId,
+    OrderStatus status,
+    Money totalAmount,
+    OffsetDateTime createdAt
+) {
+}
@@ -0,0 +1,46 @@
+package com.novamart.order.repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.novamart.order.domain.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Spring Data JPA repository for the order event outbox.
+ */
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Pending events whose retry is due, oldest first, leaving out every event queued behind an earlier
+     * event of the same customer that is still backing off.
+     */
+    @Query("""
+        select e from OutboxEvent e
+        where e.status = com.novamart.order.domain.OutboxEvent.Status.PENDING
+          and (e.nextAttemptAt is null or e.nextAttemptAt <= :now)
+          and not exists (
+            select b.id from OutboxEvent b
+            where b.customerId = e.customerId
+              and b.status = com.novamart.order.domain.OutboxEvent.Status.PENDING
+              and b.id < e.id
+              and b.nextAttemptAt > :now)
+        order by e.id
+        """)
+    List<OutboxEvent> findOldestDue(@Param("now") OffsetDateTime now, Pageable pageable);
+
+    @Query("select case when count(e) > 0 then true else false end from OutboxEvent e where e.claimedUntil > :now")
+    boolean existsClaimedAfter(@Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = :until where e.id in :ids")
+    int updateClaimedUntil(@Param("ids") Collection<Long> ids, @Param("until") OffsetDateTime until);
+
+    @Query("select min(e.createdAt) from OutboxEvent e where e.status = com.novamart.order.domain.OutboxEvent.Status.PENDING")
+    OffsetDateTime findOldestPendingCreatedAt();
+}
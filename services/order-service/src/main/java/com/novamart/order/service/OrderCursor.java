@@ -0,0 +1,40 @@
+package com.novamart.order.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.novamart.order.dto.OrderView;
+
+/**
+ * Keyset position in an order listing: the (createdAt, id) of the last order on the previous page,
+ * exchanged with clients as an opaque URL-safe token.
+ */
+record OrderCursor(OffsetDateTime createdAt, Long id) {
+
+    static OrderCursor after(OrderView order) {
+        return new OrderCursor(order.createdAt(), order.id());
+    }
+
+    static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new OrderCursor(
+                OffsetDateTime.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,17 +1,36 @@
 package com.novamart.order.service;
 
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import com.novamart.order.domain.Order;
 import com.novamart.order.domain.OrderItem;
 import com.novamart.order.dto.CreateOrderItemRequest;
 import com.novamart.order.dto.CreateOrderRequest;
+import com.novamart.order.dto.OrderItemView;
+import com.novamart.order.dto.OrderPage;
+import com.novamart.order.dto.OrderView;
 import com.novamart.order.events.OrderPlacedEventPublisher;
+import com.novamart.order.idempotency.IdempotencyService;
+import com.novamart.order.idempotency.IdempotentRequest;
+import com.novamart.order.inventory.InsufficientStockItem;
 import com.novamart.order.inventory.InventoryClient;
+import com.novamart.order.inventory.InventoryReservationHttpClient;
+import com.novamart.order.inventory.StockReservation;
+import com.novamart.order.money.Money;
+import com.novamart.order.pricing.CatalogPriceTable;
+import com.novamart.order.repository.OrderItemRow;
 import com.novamart.order.repository.OrderRepository;
+import com.novamart.order.repository.OrderRow;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
@@ -24,60 +43,214 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final OrderPlacedEventPublisher eventPublisher;
     private final InventoryClient inventoryClient;
+    private final InventoryReservationHttpClient reservationClient;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogPriceTable priceTable;
+    private final IdempotencyService idempotencyService;
 
     public OrderService(
         OrderRepository orderRepository,
         OrderPlacedEventPublisher eventPublisher,
-        InventoryClient inventoryClient
+        InventoryClient inventoryClient,
+        InventoryReservationHttpClient reservationClient,
+        TransactionTemplate transactionTemplate,
+        CatalogPriceTable priceTable,
+        IdempotencyService idempotencyService
     ) {
         this.orderRepository = orderRepository;
         this.eventPublisher = eventPublisher;
         this.inventoryClient = inventoryClient;
+        this.reservationClient = reservationClient;
+        this.transactionTemplate = transactionTemplate;
+        this.priceTable = priceTable;
+        this.idempotencyService = idempotencyService;
+
+        if (inventoryClient.reservesAtomically() && reservationClient.isEnabled()) {
+            throw new IllegalStateException(
+                "novamart.inventory.reserve.enabled cannot be combined with novamart.inventory.reservation-mode=atomic: "
+                    + "the stock would be reserved twice"
+            );
+        }
     }
 
-    @Transactional
+    /**
+     * Creates an order. Only the insert of the order and its items (plus its outbox row, in outbox delivery)
+     * runs in a DB transaction: the inventory check happens before it and a direct order.placed publish
+     * happens once the connection is back in the pool, so neither remote call pins a JDBC connection. The
+     * HTTP inventory reservation, when enabled, is started after the commit and not awaited.
+     * Unit prices and the total come from the local catalog price table when server-side pricing is on.
+     */
     public Order createOrder(CreateOrderRequest request) {
-        inventoryClient.assertSufficientStock(request.getItems());
+        return placeOrder(request, null);
+    }
+
+    /**
+     * Creates an order under an Idempotency-Key. Runs {@link #createOrder(CreateOrderRequest)} at most once
+     * per key and returns the JSON response of the first run to every later request with the same key.
+     */
+    public IdempotencyService.Outcome createOrder(CreateOrderRequest request, String idempotencyKey) {
+        IdempotentRequest idempotentRequest =
+            idempotencyService.prepare(request.getCustomerId(), idempotencyKey, request);
+        return idempotencyService.execute(idempotentRequest, keyed -> placeOrder(request, keyed));
+    }
+
+    private Order placeOrder(CreateOrderRequest request, IdempotentRequest idempotentRequest) {
+        if (inventoryClient.reservesAtomically()) {
+            return placeReservedOrder(request, idempotentRequest);
+        }
+
+        // Start the stock check first so the order graph is built while the lookups are in flight.
+        CompletableFuture<List<InsufficientStockItem>> stockCheck =
+            inventoryClient.checkStockAsync(request.getItems());
+
+        Order order = buildOrder(request, priceTable.unitPricesCents(request.getItems()));
+        order.setInventoryReservedOverHttp(reservationClient.isEnabled());
+
+        inventoryClient.awaitSufficientStock(stockCheck);
+
+        Order saved = insert(order, idempotentRequest);
+
+        eventPublisher.publishOrderPlaced(saved);
+        if (saved.isInventoryReservedOverHttp()) {
+            // Not awaited: the client retries and reports reservations that did not go through.
+            reservationClient.submit(saved);
+        }
+
+        return saved;
+    }
+
+    /**
+     * Atomic reservation mode: the stock is taken with one conditional DynamoDB write before the insert, so
+     * there is no gap between checking and reserving in which another order can take the same units. If
+     * the insert fails the stock is given back. The order is published as already reserved, so
+     * inventory-service does not decrement it a second time.
+     */
+    private Order placeReservedOrder(CreateOrderRequest request, IdempotentRequest idempotentRequest) {
+        Order order = buildOrder(request, priceTable.unitPricesCents(request.getItems()));
+
+        StockReservation reservation = inventoryClient.reserveStock(request.getItems());
+        order.setInventoryReserved(!reservation.isEmpty());
+
+        Order saved;
+        try {
+            saved = insert(order, idempotentRequest);
+        } catch (RuntimeException e) {
+            inventoryClient.releaseStock(reservation);
+            throw e;
+        }
+
+        eventPublisher.publishOrderPlaced(saved);
+        return saved;
+    }
 
+    private Order insert(Order order, IdempotentRequest idempotentRequest) {
+        return transactionTemplate.execute(status -> {
+            Order inserted = orderRepository.save(order);
+            eventPublisher.stageOrderPlaced(inserted);
+            if (idempotentRequest != null) {
+                idempotencyService.stage(idempotentRequest, inserted);
+            }
+            return inserted;
+        });
+    }
+
+    /**
+     * Builds the unsaved order graph and its total from the request and the unit price of each item.
+     */
+    static Order buildOrder(CreateOrderRequest request, long[] unitPricesCents) {
         Order order = new Order();
         order.setCustomerId(request.getCustomerId());
 
-        BigDecimal total = BigDecimal.ZERO;
-        for (CreateOrderItemRequest itemReq : request.getItems()) {
+        long totalCents = 0;
+        for (int i = 0; i < request.getItems().size(); i++) {
+            CreateOrderItemRequest itemReq = request.getItems().get(i);
             OrderItem item = new OrderItem();
             item.setProductId(itemReq.getProductId());
             item.setProductSku(itemReq.getProductSku());
             item.setQuantity(itemReq.getQuantity());
-            item.setUnitPrice(itemReq.getUnitPrice());
+            item.setUnitPrice(Money.ofMinor(unitPricesCents[i]));
 
             order.addItem(item);
 
-            BigDecimal lineTotal = itemReq.getUnitPrice()
-                .multiply(BigDecimal.valueOf(itemReq.getQuantity()));
-            total = total.add(lineTotal);
+            totalCents = Math.addExact(totalCents, Math.multiplyExact(unitPricesCents[i], (long) itemReq.getQuantity()));
         }
-        order.setTotalAmount(total);
-
-        Order saved = orderRepository.save(order);
-
-        eventPublisher.publishOrderPlaced(saved);
-
-        return saved;
+        order.setTotalAmount(Money.ofMinor(totalCents));
+        return order;
     }
 
     @Transactional(readOnly = true)
-    public Order getOrder(Long id) {
-        return orderRepository.findById(id)
-            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+    public OrderView getOrder(Long id) {
+        List<OrderView> views = loadViews(List.of(id));
+        if (views.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found");
+        }
+        return views.get(0);
     }
 
+    /**
+     * Returns up to {@code size} orders, newest first, starting after {@code cursor} (a token from a previous
+     * page, or null for the first page). Orders of all customers are listed when {@code customerId} is null.
+     */
     @Transactional(readOnly = true)
-    public List<Order> getOrdersForCustomer(String customerId) {
-        return orderRepository.findByCustomerId(customerId);
+    public OrderPage getOrders(String customerId, String cursor, int size) {
+        OrderCursor after = cursor == null || cursor.isBlank() ? null : OrderCursor.decode(cursor);
+        // Fetch one extra id to learn whether another page follows.
+        Limit limit = Limit.of(size + 1);
+
+        List<Long> ids;
+        if (customerId != null) {
+            ids = after == null
+                ? orderRepository.findPageIdsByCustomerId(customerId, limit)
+                : orderRepository.findPageIdsByCustomerIdAfter(customerId, after.createdAt(), after.id(), limit);
+        } else {
+            ids = after == null
+                ? orderRepository.findPageIds(limit)
+                : orderRepository.findPageIdsAfter(after.createdAt(), after.id(), limit);
+        }
+
+        boolean hasMore = ids.size() > size;
+        List<Long> pageIds = hasMore ? ids.subList(0, size) : ids;
+        if (pageIds.isEmpty()) {
+            return new OrderPage(List.of(), null);
+        }
+
+        List<OrderView> orders = loadViews(pageIds);
+        String nextCursor = hasMore && !orders.isEmpty()
+            ? OrderCursor.after(orders.get(orders.size() - 1)).encode()
+            : null;
+        return new OrderPage(orders, nextCursor);
     }
 
-    @Transactional(readOnly = true)
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    /**
+     * Loads read models for the given ids, in the same order, skipping ids that do not exist.
+     */
+    private List<OrderView> loadViews(List<Long> ids) {
+        Map<Long, OrderRow> rows = orderRepository.findRowsByIdIn(ids).stream()
+            .collect(Collectors.toMap(OrderRow::id, Function.identity()));
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<OrderItemView>> itemsByOrderId = new HashMap<>();
+        for (OrderItemRow item : orderRepository.findItemRowsByOrderIdIn(rows.keySet())) {
+            itemsByOrderId.computeIfAbsent(item.orderId(), orderId -> new ArrayList<>())
+                .add(new OrderItemView(item.id(), item.productId(), item.productSku(), item.quantity(), item.unitPrice()));
+        }
+
+        List<OrderView> views = new ArrayList<>(rows.size());
+        for (Long id : ids) {
+            OrderRow row = rows.get(id);
+            if (row != null) {
+                views.add(new OrderView(
+                    row.id(),
+                    row.customerId(),
+                    row.status(),
+                    row.totalAmount(),
+                    row.createdAt(),
+                    itemsByOrderId.getOrDefault(id, List.of())
+                ));
+            }
+        }
+        return views;
     }
 }
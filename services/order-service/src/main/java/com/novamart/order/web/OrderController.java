@@ -1,20 +1,23 @@
 package com.novamart.order.web;
 
-import java.util.List;
-
 import com.novamart.order.domain.Order;
 import com.novamart.order.dto.CreateOrderRequest;
+import com.novamart.order.dto.OrderPage;
+import com.novamart.order.dto.OrderView;
+import com.novamart.order.idempotency.IdempotencyService;
 import com.novamart.order.service.OrderService;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
@@ -26,6 +29,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class OrderController {
 
     private final OrderService orderService;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 50;
 
     public OrderController(OrderService orderService) {
         this.orderService = orderService;
@@ -33,30 +38,49 @@ public class OrderController {
 
     /**
      * Creates a new order and emits an order.placed event.
+     * With an Idempotency-Key header, a retry of the same request returns the original response (marked
+     * Idempotent-Replayed: true) instead of placing a second order.
      */
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public Order createOrder(@Valid @RequestBody CreateOrderRequest request) {
-        return orderService.createOrder(request);
+    public ResponseEntity<?> createOrder(
+        @Valid @RequestBody CreateOrderRequest request,
+        @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey
+    ) {
+        if (idempotencyKey == null) {
+            Order order = orderService.createOrder(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(order);
+        }
+
+        IdempotencyService.Outcome outcome = orderService.createOrder(request, idempotencyKey);
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .contentType(MediaType.APPLICATION_JSON)
+            .header("Idempotent-Replayed", String.valueOf(outcome.replayed()))
+            .body(outcome.body());
     }
 
     /**
      * Returns a single order by id.
      */
     @GetMapping("/{id}")
-    public Order getOrder(@PathVariable Long id) {
+    public OrderView getOrder(@PathVariable Long id) {
         return orderService.getOrder(id);
     }
 
     /**
-     * Returns orders for a given customer, if customerId is provided.
-     * If not, returns all orders (dev convenience).
+     * Returns a page of orders for a given customer, if customerId is provided.
+     * If not, pages through all orders (dev convenience). Pass the returned nextCursor to get the next page.
      */
     @GetMapping
-    public List<Order> getOrders(@RequestParam(required = false) String customerId) {
-        if (customerId != null && !customerId.isBlank()) {
-            return orderService.getOrdersForCustomer(customerId);
-        }
-        return orderService.getAllOrders();
+    public OrderPage getOrders(
+        @RequestParam(required = false) String customerId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size
+    ) {
+        String effectiveCustomerId = customerId != null && !customerId.isBlank() ? customerId : null;
+        return orderService.getOrders(effectiveCustomerId, cursor, clampPageSize(size));
+    }
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
     }
 }
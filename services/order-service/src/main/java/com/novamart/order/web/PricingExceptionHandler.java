@@ -0,0 +1,35 @@
+package com.novamart.order.web;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.novamart.order.pricing.PriceMismatchException;
+import com.novamart.order.pricing.PriceMismatchItem;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class PricingExceptionHandler {
+
+    @ExceptionHandler(PriceMismatchException.class)
+    public ResponseEntity<Map<String, Object>> handlePriceMismatch(PriceMismatchException ex) {
+        List<PriceMismatchItem> items = ex.getItems();
+
+        String message;
+        if (items.size() == 1) {
+            PriceMismatchItem item = items.get(0);
+            message = "The price of item " + item.productId() + " is now " + item.current()
+                + ", not " + item.submitted() + ".";
+        } else {
+            message = "Some item prices have changed.";
+        }
+
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", message);
+        body.put("items", items);
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+}
@@ -0,0 +1,24 @@
+package com.novamart.order.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class AwsClientsTest {
+
+    @Test
+    void poolFollowsTomcatThreadsOnPlatformThreads() {
+        assertThat(AwsClients.poolSize(0, 200, false)).isEqualTo(216);
+    }
+
+    @Test
+    void virtualThreadsIgnoreTheTomcatThreadCount() {
+        assertThat(AwsClients.poolSize(0, 200, true)).isEqualTo(AwsClients.VIRTUAL_THREAD_CONNECTIONS);
+    }
+
+    @Test
+    void explicitSizeWins() {
+        assertThat(AwsClients.poolSize(500, 200, true)).isEqualTo(500);
+        assertThat(AwsClients.poolSize(64, 200, false)).isEqualTo(64);
+    }
+}
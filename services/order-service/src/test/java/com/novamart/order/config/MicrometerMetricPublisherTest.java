@@ -0,0 +1,60 @@
+package com.novamart.order.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.core.metrics.CoreMetric;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollector;
+
+class MicrometerMetricPublisherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MicrometerMetricPublisher publisher = new MicrometerMetricPublisher(meterRegistry);
+
+    @Test
+    void recordsCallsRetriesAndPoolState() {
+        MetricCollector apiCall = MetricCollector.create("ApiCall");
+        apiCall.reportMetric(CoreMetric.SERVICE_ID, "DynamoDB");
+        apiCall.reportMetric(CoreMetric.OPERATION_NAME, "GetItem");
+        apiCall.reportMetric(CoreMetric.API_CALL_SUCCESSFUL, true);
+        apiCall.reportMetric(CoreMetric.API_CALL_DURATION, Duration.ofMillis(12));
+        apiCall.reportMetric(CoreMetric.RETRY_COUNT, 2);
+        MetricCollector httpClient = apiCall.createChild("ApiCallAttempt").createChild("HttpClient");
+        httpClient.reportMetric(HttpMetric.HTTP_CLIENT_NAME, "Apache");
+        httpClient.reportMetric(HttpMetric.CONCURRENCY_ACQUIRE_DURATION, Duration.ofMillis(3));
+        httpClient.reportMetric(HttpMetric.LEASED_CONCURRENCY, 7);
+        httpClient.reportMetric(HttpMetric.PENDING_CONCURRENCY_ACQUIRES, 1);
+
+        publisher.publish(apiCall.collect());
+
+        assertThat(meterRegistry.get("novamart.aws.api_call")
+            .tags("service", "DynamoDB", "operation", "GetItem", "outcome", "success")
+            .timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(12.0);
+        assertThat(meterRegistry.get("novamart.aws.api_call.retries").counter().count()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("novamart.aws.http.acquire").tag("client", "Apache").timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.get("novamart.aws.http.leased").tag("client", "Apache").gauge().value()).isEqualTo(7.0);
+        assertThat(meterRegistry.get("novamart.aws.http.pending").tag("client", "Apache").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void callWithoutRetriesOrHttpMetricsOnlyRecordsTheCall() {
+        MetricCollector apiCall = MetricCollector.create("ApiCall");
+        apiCall.reportMetric(CoreMetric.SERVICE_ID, "EventBridge");
+        apiCall.reportMetric(CoreMetric.OPERATION_NAME, "PutEvents");
+        apiCall.reportMetric(CoreMetric.API_CALL_SUCCESSFUL, false);
+        apiCall.reportMetric(CoreMetric.API_CALL_DURATION, Duration.ofMillis(40));
+        apiCall.reportMetric(CoreMetric.RETRY_COUNT, 0);
+
+        publisher.publish(apiCall.collect());
+
+        assertThat(meterRegistry.get("novamart.aws.api_call").tag("outcome", "failure").timer().count()).isEqualTo(1L);
+        assertThat(meterRegistry.find("novamart.aws.api_call.retries").counter()).isNull();
+        assertThat(meterRegistry.find("novamart.aws.http.leased").gauge()).isNull();
+    }
+}
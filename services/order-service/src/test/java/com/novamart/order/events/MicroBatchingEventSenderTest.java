@@ -0,0 +1,271 @@
+package com.novamart.order.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.services.eventbridge.EventBridgeAsyncClient;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequest;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResponse;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResultEntry;
+
+/**
+ * Batching, retries and overflow handling of the async sender, with PutEvents answered by a scripted
+ * stand-in for the EventBridge async client.
+ */
+class MicroBatchingEventSenderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StubEventBridge eventBridge = new StubEventBridge();
+    private final List<String> sentSync = Collections.synchronizedList(new ArrayList<>());
+    private MicroBatchingEventSender sender;
+
+    @AfterEach
+    void closeSender() {
+        eventBridge.release();
+        if (sender != null) {
+            sender.close();
+        }
+    }
+
+    @Test
+    void fullBatchIsSentWithoutWaitingForTheLinger() throws InterruptedException {
+        sender = sender(100, 3, Duration.ofSeconds(10), MicroBatchingEventSender.OverflowPolicy.DROP);
+
+        submit("e1", "e2", "e3", "e4");
+
+        await(() -> eventBridge.calls().size() == 1);
+        assertThat(eventBridge.calls()).isEqualTo(List.of(List.of("e1", "e2", "e3")));
+    }
+
+    @Test
+    void partialBatchIsSentOnceTheFirstEntryHasLingered() throws InterruptedException {
+        sender = sender(100, 10, Duration.ofMillis(100), MicroBatchingEventSender.OverflowPolicy.DROP);
+
+        long start = System.nanoTime();
+        submit("e1", "e2");
+        await(() -> eventBridge.calls().size() == 1);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100).isTrue();
+        assertThat(eventBridge.calls()).isEqualTo(List.of(List.of("e1", "e2")));
+        await(() -> count("sent") == 2.0);
+    }
+
+    @Test
+    void rejectedEntryIsRetriedAfterABackoff() throws InterruptedException {
+        sender = sender(100, 10, Duration.ofMillis(1), MicroBatchingEventSender.OverflowPolicy.DROP);
+        eventBridge.rejectOnce("e2");
+
+        submit("e1", "e2");
+
+        await(() -> count("sent") == 2.0);
+        assertThat(eventBridge.calls()).isEqualTo(List.of(List.of("e1", "e2"), List.of("e2")));
+        assertThat(eventBridge.gapMillis(0, 1) >= 50).isTrue();
+        assertThat(count("failed")).isZero();
+    }
+
+    @Test
+    void entryIsGivenUpOnAfterThreeAttemptsWithGrowingBackoff() throws InterruptedException {
+        sender = sender(100, 10, Duration.ofMillis(1), MicroBatchingEventSender.OverflowPolicy.DROP);
+        eventBridge.rejectAlways("e2");
+
+        submit("e1", "e2");
+
+        await(() -> count("failed") == 1.0);
+        assertThat(eventBridge.calls()).isEqualTo(List.of(List.of("e1", "e2"), List.of("e2"), List.of("e2")));
+        assertThat(eventBridge.gapMillis(0, 1) >= 50).isTrue();
+        assertThat(eventBridge.gapMillis(1, 2) >= 100).isTrue();
+        assertThat(count("sent")).isEqualTo(1.0);
+    }
+
+    @Test
+    void dropPolicyDropsWhenTheQueueIsFull() throws InterruptedException {
+        sender = sender(1, 1, Duration.ZERO, MicroBatchingEventSender.OverflowPolicy.DROP);
+        fillQueue();
+
+        submit("e4");
+
+        assertThat(count("dropped")).isEqualTo(1.0);
+        eventBridge.release();
+        await(() -> count("sent") == 3.0);
+        assertThat(eventBridge.calls()).isEqualTo(List.of(List.of("e1"), List.of("e2"), List.of("e3")));
+    }
+
+    @Test
+    void blockPolicyWaitsForTheTimeoutThenDrops() throws InterruptedException {
+        sender = sender(1, 1, Duration.ZERO, MicroBatchingEventSender.OverflowPolicy.BLOCK);
+        fillQueue();
+
+        long start = System.nanoTime();
+        submit("e4");
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50).isTrue();
+        assertThat(count("dropped")).isEqualTo(1.0);
+    }
+
+    @Test
+    void blockPolicyQueuesOnceRoomFreesUp() throws InterruptedException {
+        sender = sender(1, 1, Duration.ZERO, MicroBatchingEventSender.OverflowPolicy.BLOCK);
+        fillQueue();
+
+        CompletableFuture.delayedExecutor(10, TimeUnit.MILLISECONDS).execute(eventBridge::release);
+        submit("e4");
+
+        await(() -> count("sent") == 4.0);
+        assertThat(count("dropped")).isZero();
+    }
+
+    @Test
+    void syncPolicySendsOnTheCallersThread() throws InterruptedException {
+        sender = sender(1, 1, Duration.ZERO, MicroBatchingEventSender.OverflowPolicy.SYNC);
+        fillQueue();
+
+        submit("e4");
+
+        assertThat(sentSync).isEqualTo(List.of("e4"));
+        assertThat(count("sync_fallback")).isEqualTo(1.0);
+        assertThat(count("dropped")).isZero();
+    }
+
+    @Test
+    void closeSendsWhatIsStillQueued() {
+        sender = sender(100, 10, Duration.ofMillis(20), MicroBatchingEventSender.OverflowPolicy.DROP);
+        submit("e1", "e2");
+
+        sender.close();
+        sender = null;
+
+        assertThat(eventBridge.calls()).isEqualTo(List.of(List.of("e1", "e2")));
+        assertThat(count("sent")).isEqualTo(2.0);
+    }
+
+    /**
+     * With one call allowed in flight and held open: e1 is in flight, the sender thread holds e2 waiting
+     * for the slot, and e3 fills the one-entry queue.
+     */
+    private void fillQueue() throws InterruptedException {
+        eventBridge.hold();
+        submit("e1");
+        await(() -> eventBridge.calls().size() == 1);
+        submit("e2");
+        await(() -> queueSize() == 0);
+        submit("e3");
+        assertThat(queueSize()).isEqualTo(1.0);
+    }
+
+    private MicroBatchingEventSender sender(
+        int capacity,
+        int maxBatchSize,
+        Duration linger,
+        MicroBatchingEventSender.OverflowPolicy overflowPolicy
+    ) {
+        return new MicroBatchingEventSender(
+            eventBridge,
+            capacity,
+            maxBatchSize,
+            linger,
+            1,
+            overflowPolicy,
+            Duration.ofMillis(50),
+            Duration.ofSeconds(5),
+            Duration.ofMillis(50),
+            entry -> sentSync.add(entry.detail()),
+            meterRegistry
+        );
+    }
+
+    private void submit(String... details) {
+        for (String detail : details) {
+            sender.submit(PutEventsRequestEntry.builder().detail(detail).build());
+        }
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("novamart.events.async").tag("outcome", outcome).counter().count();
+    }
+
+    private double queueSize() {
+        return meterRegistry.get("novamart.events.async.queue.size").gauge().value();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 250 && !condition.getAsBoolean(); i++) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    /**
+     * Records every PutEvents call, rejects the scripted entries with a throttling error and, while held,
+     * leaves the calls outstanding until released.
+     */
+    private static final class StubEventBridge implements EventBridgeAsyncClient {
+
+        private final List<List<String>> calls = Collections.synchronizedList(new ArrayList<>());
+        private final List<Long> callNanos = Collections.synchronizedList(new ArrayList<>());
+        private final Set<String> rejectOnce = ConcurrentHashMap.newKeySet();
+        private final Set<String> rejectAlways = ConcurrentHashMap.newKeySet();
+        private volatile CompletableFuture<Void> gate = CompletableFuture.completedFuture(null);
+
+        @Override
+        public CompletableFuture<PutEventsResponse> putEvents(PutEventsRequest request) {
+            List<String> details = request.entries().stream().map(PutEventsRequestEntry::detail).toList();
+            callNanos.add(System.nanoTime());
+            calls.add(details);
+            PutEventsResponse response = PutEventsResponse.builder()
+                .entries(details.stream().map(detail -> rejectOnce.remove(detail) || rejectAlways.contains(detail)
+                    ? PutEventsResultEntry.builder().errorCode("ThrottlingException").errorMessage("Rate exceeded").build()
+                    : PutEventsResultEntry.builder().eventId("id-" + detail).build()).toList())
+                .build();
+            return gate.thenApplyAsync(ignored -> response);
+        }
+
+        List<List<String>> calls() {
+            synchronized (calls) {
+                return List.copyOf(calls);
+            }
+        }
+
+        long gapMillis(int from, int to) {
+            return TimeUnit.NANOSECONDS.toMillis(callNanos.get(to) - callNanos.get(from));
+        }
+
+        void rejectOnce(String detail) {
+            rejectOnce.add(detail);
+        }
+
+        void rejectAlways(String detail) {
+            rejectAlways.add(detail);
+        }
+
+        void hold() {
+            gate = new CompletableFuture<>();
+        }
+
+        void release() {
+            gate.complete(null);
+        }
+
+        @Override
+        public String serviceName() {
+            return "events";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.novamart.order.events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novamart.order.config.AwsClients;
+import com.novamart.order.domain.OutboxEvent;
+import com.novamart.order.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsRequestEntry;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResponse;
+import software.amazon.awssdk.services.eventbridge.model.PutEventsResultEntry;
+
+/**
+ * Relay passes against H2, with PutEvents answered by a scripted stand-in for EventBridge. Each pass runs
+ * its own transactions, so the test itself runs outside one.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderOutboxRelayTest {
+
+    private static final int MAX_ATTEMPTS = 2;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<String>> calls = new ArrayList<>();
+    private final Set<String> rejected = new HashSet<>();
+    private AwsClients awsClients;
+    private OrderOutboxRelay relay;
+
+    @BeforeEach
+    void createRelay() {
+        awsClients = new AwsClients("us-east-2", 200, false, 0, 1000, 5000, 1000, 50000, 128, 2000, 5000, 0, false, meterRegistry);
+        OrderPlacedEventPublisher eventBridge = new OrderPlacedEventPublisher(
+            awsClients, "http://localhost:4566", "novamart-bus", "novamart.orders", "outbox",
+            100, 10, 20, 4, "sync", 50, 5000, 100, new ObjectMapper(), outboxEventRepository, meterRegistry
+        ) {
+            @Override
+            PutEventsResponse putEntries(List<PutEventsRequestEntry> entries) {
+                calls.add(entries.stream().map(PutEventsRequestEntry::detail).toList());
+                return PutEventsResponse.builder()
+                    .entries(entries.stream().map(entry -> rejected.contains(entry.detail())
+                        ? PutEventsResultEntry.builder().errorCode("ThrottlingException").errorMessage("Rate exceeded").build()
+                        : PutEventsResultEntry.builder().eventId("id-" + entry.detail()).build()).toList())
+                    .build();
+            }
+        };
+        // H2 has no advisory locks; the claim lease still keeps passes apart.
+        JdbcTemplate advisoryLock = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+                return requiredType.cast(Boolean.TRUE);
+            }
+        };
+        relay = new OrderOutboxRelay(
+            outboxEventRepository, eventBridge, new TransactionTemplate(transactionManager), advisoryLock,
+            meterRegistry, 100, MAX_ATTEMPTS, 1000, 300000, 120000
+        );
+    }
+
+    @AfterEach
+    void cleanUp() {
+        outboxEventRepository.deleteAllInBatch();
+        awsClients.close();
+    }
+
+    @Test
+    void partialFailureDeletesOnlyTheAcceptedEvents() {
+        save("c1", "c1-1");
+        save("c2", "c2-1");
+        save("c3", "c3-1");
+        rejected.add("c2-1");
+
+        relay.drainOnce();
+
+        assertThat(calls).isEqualTo(List.of(List.of("c1-1", "c2-1", "c3-1")));
+        List<OutboxEvent> left = outboxEventRepository.findAll();
+        assertThat(left.size()).isEqualTo(1);
+        OutboxEvent failed = left.get(0);
+        assertThat(failed.getPayload()).isEqualTo("c2-1");
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isEqualTo("ThrottlingException: Rate exceeded");
+        assertThat(failed.getNextAttemptAt().isAfter(OffsetDateTime.now())).isTrue();
+        assertThat(failed.getClaimedUntil()).isNull();
+    }
+
+    @Test
+    void customerEventsLeaveInOrderOnePerCall() {
+        save("c1", "c1-1");
+        save("c1", "c1-2");
+        save("c2", "c2-1");
+
+        relay.drainOnce();
+
+        assertThat(calls).isEqualTo(List.of(List.of("c1-1", "c2-1"), List.of("c1-2")));
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void failedEventHoldsBackTheCustomersLaterEventsUntilItIsDelivered() {
+        save("c1", "c1-1");
+        save("c1", "c1-2");
+        save("c2", "c2-1");
+        rejected.add("c1-1");
+
+        relay.drainOnce();
+        assertThat(calls).isEqualTo(List.of(List.of("c1-1", "c2-1")));
+
+        // Still backing off: neither c1 event is due.
+        relay.drainOnce();
+        assertThat(calls.size()).isEqualTo(1);
+
+        rejected.clear();
+        makeDue();
+        relay.drainOnce();
+
+        assertThat(calls).isEqualTo(List.of(List.of("c1-1", "c2-1"), List.of("c1-1"), List.of("c1-2")));
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void eventIsParkedAfterMaxAttemptsAndStopsBlockingTheCustomer() {
+        save("c1", "c1-1");
+        save("c1", "c1-2");
+        rejected.add("c1-1");
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            makeDue();
+            relay.drainOnce();
+        }
+        relay.drainOnce();
+
+        assertThat(calls).isEqualTo(List.of(List.of("c1-1"), List.of("c1-1"), List.of("c1-2")));
+        List<OutboxEvent> left = outboxEventRepository.findAll();
+        assertThat(left.size()).isEqualTo(1);
+        assertThat(left.get(0).getStatus()).isEqualTo(OutboxEvent.Status.PARKED);
+        assertThat(left.get(0).getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(meterRegistry.get("novamart.events.outbox.parked").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void backoffDoublesUpToTheMaximum() {
+        assertThat(relay.backoff(1).toMillis()).isEqualTo(1000L);
+        assertThat(relay.backoff(3).toMillis()).isEqualTo(4000L);
+        assertThat(relay.backoff(20).toMillis()).isEqualTo(300000L);
+    }
+
+    private void save(String customerId, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setOrderId((long) payload.hashCode());
+        event.setCustomerId(customerId);
+        event.setDetailType("order.placed");
+        event.setPayload(payload);
+        outboxEventRepository.save(event);
+    }
+
+    private void makeDue() {
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        for (OutboxEvent event : events) {
+            if (event.getNextAttemptAt() != null) {
+                event.setNextAttemptAt(OffsetDateTime.now().minusSeconds(1));
+            }
+        }
+        outboxEventRepository.saveAll(events);
+    }
+}
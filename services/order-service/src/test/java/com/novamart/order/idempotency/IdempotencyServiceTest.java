@@ -0,0 +1,189 @@
+package com.novamart.order.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.lang.reflect.Proxy;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novamart.order.domain.IdempotencyRecord;
+import com.novamart.order.domain.Order;
+import com.novamart.order.repository.IdempotencyRecordRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Replay and expiry of Idempotency-Keys over an in-memory key table that, like Postgres, refuses a
+ * second row with the same key.
+ */
+class IdempotencyServiceTest {
+
+    private final Map<String, IdempotencyRecord> rows = new ConcurrentHashMap<>();
+    private final AtomicLong orderIds = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void sameKeyIsReplayedWithoutCreatingAnotherOrder() {
+        IdempotencyService service = service(24);
+        IdempotentRequest request = new IdempotentRequest("cust-1:key-1", "hash-a");
+
+        IdempotencyService.Outcome first = service.execute(request, createOrder(service));
+        IdempotencyService.Outcome second = service.execute(request, createOrder(service));
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(second.replayed()).isTrue();
+        assertThat(second.body()).isEqualTo(first.body());
+        assertThat(orderIds.get()).isEqualTo(1L);
+        assertThat(count("replayed_memory")).isEqualTo(1.0);
+    }
+
+    @Test
+    void storedKeyIsReplayedByAnotherReplica() {
+        IdempotentRequest request = new IdempotentRequest("cust-1:key-1", "hash-a");
+        IdempotencyService first = service(24);
+        first.execute(request, createOrder(first));
+
+        IdempotencyService other = service(24);
+        IdempotencyService.Outcome replayed = other.execute(request, createOrder(other));
+
+        assertThat(replayed.replayed()).isTrue();
+        assertThat(orderIds.get()).isEqualTo(1L);
+        assertThat(count("replayed_database")).isEqualTo(1.0);
+    }
+
+    @Test
+    void expiredRowNotYetCleanedUpIsReplaced() {
+        IdempotencyService service = service(24);
+        IdempotentRequest request = new IdempotentRequest("cust-1:key-1", "hash-a");
+        rows.put(request.scopedKey(), row(request.scopedKey(), "hash-old", OffsetDateTime.now().minusHours(25)));
+
+        IdempotencyService.Outcome outcome = service.execute(request, createOrder(service));
+
+        assertThat(outcome.replayed()).isFalse();
+        assertThat(orderIds.get()).isEqualTo(1L);
+        assertThat(rows.get(request.scopedKey()).getRequestHash()).isEqualTo("hash-a");
+    }
+
+    @Test
+    void cachedResponseIsNotReplayedPastTheRetention() {
+        IdempotencyService service = service(0);
+        IdempotentRequest request = new IdempotentRequest("cust-1:key-1", "hash-a");
+
+        service.execute(request, createOrder(service));
+        IdempotencyService.Outcome again = service.execute(request, createOrder(service));
+
+        assertThat(again.replayed()).isFalse();
+        assertThat(orderIds.get()).isEqualTo(2L);
+        assertThat(meterRegistry.find("novamart.orders.idempotency").tag("outcome", "replayed_memory").counter().count())
+            .isZero();
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        IdempotencyService service = service(24);
+        service.execute(new IdempotentRequest("cust-1:key-1", "hash-a"), createOrder(service));
+
+        assertThatThrownBy(() -> service.execute(new IdempotentRequest("cust-1:key-1", "hash-b"), createOrder(service)))
+            .isInstanceOfSatisfying(ResponseStatusException.class, e ->
+                assertThat(e.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY));
+        assertThat(orderIds.get()).isEqualTo(1L);
+    }
+
+    private IdempotencyService service(long retentionHours) {
+        return new IdempotencyService(
+            repository(),
+            new TransactionTemplate(new NoOpTransactionManager()),
+            new ObjectMapper().findAndRegisterModules(),
+            meterRegistry,
+            retentionHours,
+            100,
+            1000
+        );
+    }
+
+    /**
+     * Creates an order and stages its key, as the order transaction does.
+     */
+    private Function<IdempotentRequest, Order> createOrder(IdempotencyService service) {
+        return request -> {
+            Order order = new Order();
+            order.setId(orderIds.incrementAndGet());
+            order.setCustomerId("cust-1");
+            service.stage(request, order);
+            return order;
+        };
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("novamart.orders.idempotency").tag("outcome", outcome).counter().count();
+    }
+
+    private static IdempotencyRecord row(String id, String requestHash, OffsetDateTime createdAt) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(id);
+        record.setRequestHash(requestHash);
+        record.setOrderId(0L);
+        record.setResponseBody("{}");
+        record.setCreatedAt(createdAt);
+        return record;
+    }
+
+    private IdempotencyRecordRepository repository() {
+        return (IdempotencyRecordRepository) Proxy.newProxyInstance(
+            IdempotencyRecordRepository.class.getClassLoader(),
+            new Class<?>[] {IdempotencyRecordRepository.class},
+            (proxy, method, args) -> switch (method.getName()) {
+                case "findById" -> Optional.ofNullable(rows.get((String) args[0]));
+                case "save" -> {
+                    IdempotencyRecord record = (IdempotencyRecord) args[0];
+                    if (record.getCreatedAt() == null) {
+                        record.setCreatedAt(OffsetDateTime.now());
+                    }
+                    if (rows.putIfAbsent(record.getId(), record) != null) {
+                        throw new DataIntegrityViolationException("duplicate key " + record.getId());
+                    }
+                    yield record;
+                }
+                case "deleteExpired" -> {
+                    IdempotencyRecord row = rows.get((String) args[0]);
+                    boolean expired = row != null && row.getCreatedAt().isBefore((OffsetDateTime) args[1]);
+                    yield expired && rows.remove(row.getId(), row) ? 1 : 0;
+                }
+                case "toString" -> "InMemoryIdempotencyRecordRepository";
+                default -> throw new UnsupportedOperationException(method.getName());
+            }
+        );
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
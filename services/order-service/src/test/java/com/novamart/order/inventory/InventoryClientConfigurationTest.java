@@ -0,0 +1,55 @@
+package com.novamart.order.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.novamart.order.config.AwsClients;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Which combinations of reservation settings the client starts with. Building the client makes no calls,
+ * so this needs no DynamoDB.
+ */
+class InventoryClientConfigurationTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AwsClients awsClients =
+        new AwsClients("us-east-2", 200, false, 0, 1000, 5000, 1000, 50000, 128, 2000, 5000, 3, false, meterRegistry);
+
+    @AfterEach
+    void closeClients() {
+        awsClients.close();
+    }
+
+    @Test
+    void shardsStartInAtomicMode() {
+        InventoryClient client = client(true, "atomic", "sku-hot");
+
+        assertThat(client.reservesAtomically()).isTrue();
+    }
+
+    @Test
+    void shardsRequireAtomicMode() {
+        assertThatThrownBy(() -> client(true, "check", "sku-hot")).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> client(false, "atomic", "sku-hot")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void checkModeStartsWithoutShards() {
+        InventoryClient client = client(true, "check", "");
+
+        assertThat(client.reservesAtomically()).isFalse();
+    }
+
+    private InventoryClient client(boolean enforce, String reservationMode, String shardedProducts) {
+        return new InventoryClient(
+            awsClients, "http://localhost:8000", "inventory", enforce, reservationMode, false, 1500, 8,
+            new InventoryAvailabilityCache(false, 2000, 10000, 50, meterRegistry),
+            new InventoryShards(!shardedProducts.isEmpty(), 4, shardedProducts, meterRegistry)
+        );
+    }
+}
@@ -0,0 +1,260 @@
+package com.novamart.order.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import com.novamart.order.config.AwsClients;
+import com.novamart.order.dto.CreateOrderItemRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.BillingMode;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.KeyType;
+import software.amazon.awssdk.services.dynamodb.model.ScalarAttributeType;
+
+/**
+ * Atomic check-and-reserve against DynamoDB Local. Runs only when {@code DYNAMODB_LOCAL_ENDPOINT} is set,
+ * e.g. {@code DYNAMODB_LOCAL_ENDPOINT=http://localhost:8000} with the {@code inventory-dynamodb} container
+ * from the dev compose files running.
+ */
+@EnabledIfEnvironmentVariable(named = "DYNAMODB_LOCAL_ENDPOINT", matches = ".+")
+class InventoryClientReservationTest {
+
+    private static final String REGION = "us-east-2";
+
+    private DynamoDbClient dynamoDb;
+    private AwsClients awsClients;
+    private String endpoint;
+    private InventoryClient inventoryClient;
+    private String tableName;
+
+    @BeforeAll
+    static void localCredentials() {
+        // DynamoDB Local accepts any credentials, but the SDK needs some.
+        System.setProperty("aws.accessKeyId", "test");
+        System.setProperty("aws.secretAccessKey", "test");
+    }
+
+    @BeforeEach
+    void createTable() {
+        endpoint = System.getenv("DYNAMODB_LOCAL_ENDPOINT");
+        dynamoDb = DynamoDbClient.builder()
+            .region(Region.of(REGION))
+            .endpointOverride(URI.create(endpoint))
+            .build();
+        tableName = "inventory-test-" + UUID.randomUUID();
+        dynamoDb.createTable(request -> request
+            .tableName(tableName)
+            .billingMode(BillingMode.PAY_PER_REQUEST)
+            .attributeDefinitions(AttributeDefinition.builder()
+                .attributeName("productId")
+                .attributeType(ScalarAttributeType.S)
+                .build())
+            .keySchema(KeySchemaElement.builder().attributeName("productId").keyType(KeyType.HASH).build()));
+
+        awsClients = new AwsClients(REGION, 200, false, 0, 1000, 5000, 1000, 50000, 128, 2000, 5000, 3, false, new SimpleMeterRegistry());
+        inventoryClient = client("");
+    }
+
+    @AfterEach
+    void dropTable() {
+        dynamoDb.deleteTable(request -> request.tableName(tableName));
+        dynamoDb.close();
+        awsClients.close();
+    }
+
+    @Test
+    void reservesEveryItemInOneWrite() {
+        putStock("sku-a", 5);
+        putStock("sku-b", 3);
+
+        StockReservation reservation = inventoryClient.reserveStock(List.of(item("SKU-A", 2), item("sku-b", 3)));
+
+        assertThat(reservation.quantitiesByProductId()).isEqualTo(Map.of("sku-a", 2, "sku-b", 3));
+        assertThat(stock("sku-a")).isEqualTo(3);
+        assertThat(stock("sku-b")).isEqualTo(0);
+    }
+
+    @Test
+    void shortItemLeavesAllStockUntouched() {
+        putStock("sku-a", 5);
+        putStock("sku-b", 1);
+
+        assertThatThrownBy(() -> inventoryClient.reserveStock(List.of(item("sku-a", 2), item("sku-b", 3))))
+            .isInstanceOfSatisfying(InsufficientStockException.class, e ->
+                assertThat(e.getItems()).isEqualTo(List.of(new InsufficientStockItem("sku-b", 3, 1))));
+
+        assertThat(stock("sku-a")).isEqualTo(5);
+        assertThat(stock("sku-b")).isEqualTo(1);
+    }
+
+    @Test
+    void singleProductReportsTheStockItHad() {
+        putStock("sku-a", 1);
+
+        inventoryClient.reserveStock(List.of(item("sku-a", 1)));
+
+        assertThatThrownBy(() -> inventoryClient.reserveStock(List.of(item("sku-a", 1))))
+            .isInstanceOfSatisfying(InsufficientStockException.class, e ->
+                assertThat(e.getItems()).isEqualTo(List.of(new InsufficientStockItem("sku-a", 1, 0))));
+        assertThat(stock("sku-a")).isEqualTo(0);
+    }
+
+    @Test
+    void releaseGivesStockBack() {
+        putStock("sku-a", 4);
+        putStock("sku-b", 4);
+
+        StockReservation reservation = inventoryClient.reserveStock(List.of(item("sku-a", 1), item("sku-b", 2)));
+        inventoryClient.releaseStock(reservation);
+
+        assertThat(stock("sku-a")).isEqualTo(4);
+        assertThat(stock("sku-b")).isEqualTo(4);
+    }
+
+    @Test
+    void concurrentOrdersNeverOversell() throws Exception {
+        putStock("sku-a", 10);
+        putStock("sku-b", 100);
+        int orders = 30;
+
+        ExecutorService executor = Executors.newFixedThreadPool(orders);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < orders; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                try {
+                    inventoryClient.reserveStock(List.of(item("sku-a", 1), item("sku-b", 1)));
+                    return true;
+                } catch (InsufficientStockException e) {
+                    return false;
+                }
+            }));
+        }
+        start.countDown();
+
+        int reserved = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(30, TimeUnit.SECONDS)) {
+                reserved++;
+            }
+        }
+        executor.shutdown();
+
+        // Conflicting transactions may also be turned away (503), but never more than the stock succeeds.
+        assertThat(stock("sku-a")).isEqualTo(10 - reserved);
+        assertThat(stock("sku-b")).isEqualTo(100 - reserved);
+        assertThat(reserved).isLessThanOrEqualTo(10);
+    }
+
+    @Test
+    void shardedReservationFallsOverToAShardWithStock() {
+        InventoryClient sharded = client("sku-hot");
+        putStock("sku-hot#2", 5);
+
+        StockReservation reservation = sharded.reserveStock(List.of(item("sku-hot", 3)));
+
+        assertThat(reservation.quantitiesByProductId()).isEqualTo(Map.of("sku-hot#2", 3));
+        assertThat(stock("sku-hot#2")).isEqualTo(2);
+    }
+
+    @Test
+    void shardedReservationSplitsAcrossShardsWhenNoneHasEnough() {
+        InventoryClient sharded = client("sku-hot");
+        putStock("sku-hot#0", 2);
+        putStock("sku-hot#1", 2);
+        putStock("sku-hot#3", 1);
+
+        sharded.reserveStock(List.of(item("sku-hot", 4)));
+
+        assertThat(stock("sku-hot#0") + stock("sku-hot#1") + stock("sku-hot#3")).isEqualTo(1);
+        assertThatThrownBy(() -> sharded.reserveStock(List.of(item("sku-hot", 2))))
+            .isInstanceOfSatisfying(InsufficientStockException.class, e ->
+                assertThat(e.getItems()).isEqualTo(List.of(new InsufficientStockItem("sku-hot", 2, 1))));
+    }
+
+    @Test
+    void shardedStockIsSummedForTheCheck() {
+        InventoryClient sharded = client("sku-hot");
+        putStock("sku-hot", 1);
+        putStock("sku-hot#0", 2);
+        putStock("sku-hot#3", 3);
+
+        sharded.assertSufficientStock(List.of(item("sku-hot", 6)));
+        assertThatThrownBy(() -> sharded.assertSufficientStock(List.of(item("sku-hot", 7))))
+            .isInstanceOfSatisfying(InsufficientStockException.class, e ->
+                assertThat(e.getItems()).isEqualTo(List.of(new InsufficientStockItem("sku-hot", 7, 6))));
+    }
+
+    @Test
+    void rebalanceMovesUnshardedStockIntoShards() {
+        InventoryClient sharded = client("sku-hot");
+        putStock("sku-hot", 10);
+        putStock("sku-hot#1", 1);
+
+        assertThat(sharded.rebalanceShards("sku-hot")).isEqualTo(InventoryClient.RebalanceOutcome.MOVED);
+
+        assertThat(stock("sku-hot")).isEqualTo(0);
+        assertThat(stock("sku-hot#0")).isEqualTo(3);
+        assertThat(stock("sku-hot#1")).isEqualTo(3);
+        assertThat(stock("sku-hot#2")).isEqualTo(3);
+        assertThat(stock("sku-hot#3")).isEqualTo(2);
+        assertThat(sharded.rebalanceShards("sku-hot")).isEqualTo(InventoryClient.RebalanceOutcome.BALANCED);
+    }
+
+    private InventoryClient client(String shardedProducts) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new InventoryClient(
+            awsClients, endpoint, tableName, true, "atomic", false, 1500, 8,
+            new InventoryAvailabilityCache(false, 2000, 10000, 50, meterRegistry),
+            new InventoryShards(!shardedProducts.isEmpty(), 4, shardedProducts, meterRegistry)
+        );
+    }
+
+    private void putStock(String productId, int stock) {
+        dynamoDb.putItem(request -> request
+            .tableName(tableName)
+            .item(Map.of(
+                "productId", AttributeValue.builder().s(productId).build(),
+                "stock", AttributeValue.builder().n(Integer.toString(stock)).build()
+            )));
+    }
+
+    private int stock(String productId) {
+        return Integer.parseInt(dynamoDb.getItem(request -> request
+            .tableName(tableName)
+            .consistentRead(true)
+            .key(Map.of("productId", AttributeValue.builder().s(productId).build())))
+            .item().get("stock").n());
+    }
+
+    private static CreateOrderItemRequest item(String sku, int quantity) {
+        CreateOrderItemRequest item = new CreateOrderItemRequest();
+        item.setProductId(1L);
+        item.setProductSku(sku);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,287 @@
+package com.novamart.order.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novamart.order.domain.Order;
+import com.novamart.order.domain.OrderItem;
+import com.novamart.order.inventory.InventoryReservationHttpClient.Outcome;
+import com.novamart.order.inventory.InventoryReservationHttpClient.ReservationResult;
+import com.novamart.order.money.Money;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the reservation client against a stub inventory endpoint that answers with scripted statuses and
+ * delays (200 when the script is empty).
+ */
+class InventoryReservationHttpClientTest {
+
+    private record Reply(int status, long delayMs) { }
+
+    private final Queue<Reply> replies = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/inventory/reserve", this::handle);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void conflictIsOutOfStockAndNotRetried() {
+        replies.add(new Reply(409, 0));
+
+        ReservationResult result = reserve(client(8, 2000, 3, 5));
+
+        assertThat(result.outcome()).isEqualTo(Outcome.OUT_OF_STOCK);
+        assertThat(result.status()).isEqualTo(409);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void unavailableIsRetriedUntilAccepted() {
+        replies.add(new Reply(503, 0));
+        replies.add(new Reply(503, 0));
+        replies.add(new Reply(200, 0));
+
+        ReservationResult result = reserve(client(8, 2000, 3, 5));
+
+        assertThat(result.outcome()).isEqualTo(Outcome.ACCEPTED);
+        assertThat(result.attempts()).isEqualTo(3);
+        assertThat(requests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void otherServerErrorsAreNotRetried() {
+        // inventory-service may have taken the stock before failing, so sending it again could take it twice.
+        replies.add(new Reply(500, 0));
+
+        ReservationResult result = reserve(client(8, 2000, 3, 5));
+
+        assertThat(result.outcome()).isEqualTo(Outcome.FAILED);
+        assertThat(result.status()).isEqualTo(500);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() {
+        replies.add(new Reply(400, 0));
+
+        ReservationResult result = reserve(client(8, 2000, 3, 5));
+
+        assertThat(result.outcome()).isEqualTo(Outcome.REJECTED);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void timedOutAttemptIsNotRetried() {
+        replies.add(new Reply(200, 1500));
+
+        ReservationResult result = reserve(client(8, 300, 3, 5));
+
+        assertThat(result.outcome()).isEqualTo(Outcome.FAILED);
+        assertThat(result.attempts()).isEqualTo(1);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void refusedConnectionIsRetried() {
+        server.stop(0);
+
+        ReservationResult result = reserve(client(8, 2000, 3, 5));
+
+        assertThat(result.outcome()).isEqualTo(Outcome.FAILED);
+        assertThat(result.attempts()).isEqualTo(3);
+    }
+
+    @Test
+    void repeatedOrderStillBeingReservedIsAccepted() {
+        replies.add(new Reply(202, 0));
+
+        ReservationResult result = reserve(client(8, 2000, 3, 5));
+
+        assertThat(result.outcome()).isEqualTo(Outcome.ACCEPTED);
+        assertThat(result.status()).isEqualTo(202);
+    }
+
+    @Test
+    void circuitOpensAfterConsecutiveFailures() {
+        InventoryReservationHttpClient client = client(8, 2000, 1, 2);
+        replies.add(new Reply(500, 0));
+        replies.add(new Reply(500, 0));
+
+        assertThat(reserve(client).outcome()).isEqualTo(Outcome.FAILED);
+        assertThat(reserve(client).outcome()).isEqualTo(Outcome.FAILED);
+        ReservationResult shortCircuited = reserve(client);
+
+        assertThat(shortCircuited.outcome()).isEqualTo(Outcome.SHORT_CIRCUITED);
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    @Test
+    void reservationsOverTheInFlightLimitAreNotSent() {
+        InventoryReservationHttpClient client = client(1, 2000, 1, 5);
+        replies.add(new Reply(200, 500));
+
+        CompletableFuture<ReservationResult> first = client.reserve(order(1L));
+        ReservationResult second = client.reserve(order(2L)).join();
+
+        assertThat(second.outcome()).isEqualTo(Outcome.OVERLOADED);
+        assertThat(first.join().outcome()).isEqualTo(Outcome.ACCEPTED);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void unsentReservationIsSubmittedAgainOnceThereIsRoom() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InventoryReservationHttpClient client = new InventoryReservationHttpClient(
+            new ObjectMapper(), meterRegistry, true, reserveUrl(), HttpClient.Version.HTTP_1_1,
+            1, 100, 2000, 5000, 1, 1, 10, 5, 60_000, 3, 200
+        );
+        replies.add(new Reply(200, 300));
+
+        client.submit(order(1L));
+        client.submit(order(2L));
+
+        awaitRequests(2);
+        assertThat(meterRegistry.get("novamart.inventory.reserve").tag("outcome", "overloaded").timer().count() > 0).isTrue();
+        assertThat(meterRegistry.find("novamart.inventory.reserve.unreconciled").counter()).isNull();
+    }
+
+    @Test
+    void reservationThatKeepsFailingIsCountedAsUnreconciled() throws InterruptedException {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InventoryReservationHttpClient client = new InventoryReservationHttpClient(
+            new ObjectMapper(), meterRegistry, true, reserveUrl(), HttpClient.Version.HTTP_1_1,
+            8, 100, 2000, 5000, 1, 1, 10, 5, 60_000, 3, 10
+        );
+        replies.add(new Reply(500, 0));
+
+        client.submit(order(1L));
+
+        awaitRequests(1);
+        for (int i = 0; i < 100 && meterRegistry.find("novamart.inventory.reserve.unreconciled").counter() == null; i++) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertThat(meterRegistry.get("novamart.inventory.reserve.unreconciled").tag("outcome", "failed").counter().count())
+            .isEqualTo(1.0);
+        assertThat(requests.get()).isEqualTo(1);
+    }
+
+    @Test
+    void nothingIsSentUnlessEnabled() {
+        InventoryReservationHttpClient client = new InventoryReservationHttpClient(
+            new ObjectMapper(), new SimpleMeterRegistry(), false, reserveUrl(), HttpClient.Version.HTTP_1_1,
+            8, 100, 2000, 5000, 3, 1, 10, 5, 5000, 3, 1000
+        );
+
+        client.submit(order(1L));
+
+        assertThat(client.isEnabled()).isFalse();
+        assertThat(reserve(client).outcome()).isEqualTo(Outcome.DISABLED);
+        assertThat(requests.get()).isZero();
+    }
+
+    @Test
+    void enablingWithoutReserveUrlFailsAtStartup() {
+        assertThatThrownBy(() -> new InventoryReservationHttpClient(
+            new ObjectMapper(), new SimpleMeterRegistry(), true, "", HttpClient.Version.HTTP_1_1,
+            8, 100, 2000, 5000, 3, 1, 10, 5, 5000, 3, 1000
+        )).isInstanceOf(IllegalStateException.class);
+    }
+
+    private InventoryReservationHttpClient client(int maxInFlight, long maxTimeoutMs, int maxAttempts, int circuitThreshold) {
+        return new InventoryReservationHttpClient(
+            new ObjectMapper(), new SimpleMeterRegistry(), true, reserveUrl(), HttpClient.Version.HTTP_1_1,
+            maxInFlight, 100, maxTimeoutMs, 5000, maxAttempts, 1, 10, circuitThreshold, 60_000, 3, 1000
+        );
+    }
+
+    private void awaitRequests(int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && requests.get() < expected; i++) {
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        assertThat(requests.get()).isEqualTo(expected);
+    }
+
+    private String reserveUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/inventory/reserve";
+    }
+
+    private static ReservationResult reserve(InventoryReservationHttpClient client) {
+        return client.reserve(order(1L)).join();
+    }
+
+    private static Order order(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        order.setCustomerId("cust-1");
+        order.setTotalAmount(Money.ofMinor(1000));
+        OrderItem item = new OrderItem();
+        item.setProductId(7L);
+        item.setProductSku("SKU-7");
+        item.setQuantity(2);
+        item.setUnitPrice(Money.ofMinor(500));
+        order.addItem(item);
+        return order;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        exchange.getRequestBody().readAllBytes();
+        Reply reply = replies.poll();
+        if (reply == null) {
+            reply = new Reply(200, 0);
+        }
+        if (reply.delayMs() > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(reply.delayMs());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        try {
+            exchange.sendResponseHeaders(reply.status(), body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            // The client gave up on this attempt and closed the connection.
+        } finally {
+            exchange.close();
+        }
+    }
+}
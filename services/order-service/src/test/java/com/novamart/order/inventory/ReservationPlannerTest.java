@@ -0,0 +1,93 @@
+package com.novamart.order.inventory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReservationPlannerTest {
+
+    private final InventoryShards shards = new InventoryShards(true, 4, "SKU-HOT", new SimpleMeterRegistry());
+
+    @Test
+    void unshardedProductIsTakenFromItsOwnItem() {
+        ReservationPlanner planner = planner(Map.of("sku-a", 2));
+
+        assertThat(planner.nextAttempt()).isEqualTo(Map.of("sku-a", 2));
+        assertThat(planner.maxAttempts()).isEqualTo(1);
+
+        planner.recordStock(Map.of("sku-a", 1));
+        assertThatThrownBy(planner::nextAttempt)
+            .isInstanceOfSatisfying(InsufficientStockException.class, e ->
+                assertThat(e.getItems()).isEqualTo(List.of(new InsufficientStockItem("sku-a", 2, 1))));
+    }
+
+    @Test
+    void shortShardsAreNotTriedTwice() {
+        ReservationPlanner planner = planner(Map.of("sku-hot", 3));
+        Set<String> tried = new HashSet<>();
+
+        for (int attempt = 0; attempt < 4; attempt++) {
+            Map<String, Integer> writes = planner.nextAttempt();
+            String itemKey = writes.keySet().iterator().next();
+            assertThat(writes.get(itemKey)).isEqualTo(3);
+            assertThat(tried.add(itemKey)).isTrue();
+            planner.recordStock(Map.of(itemKey, 1));
+        }
+
+        // The unsharded item is tried after every shard.
+        assertThat(planner.nextAttempt()).isEqualTo(Map.of("sku-hot", 3));
+    }
+
+    @Test
+    void quantityIsSplitOnceEveryItemReportedItsStock() {
+        ReservationPlanner planner = planner(Map.of("sku-hot", 5));
+        planner.recordStock(Map.of("sku-hot#0", 1, "sku-hot#1", 3, "sku-hot#2", 0, "sku-hot#3", 2, "sku-hot", 0));
+
+        assertThat(planner.nextAttempt()).isEqualTo(Map.of("sku-hot#1", 3, "sku-hot#3", 2));
+    }
+
+    @Test
+    void shardedProductShortOverAllItemsReportsTheTotal() {
+        ReservationPlanner planner = planner(Map.of("sku-hot", 5));
+        planner.recordStock(Map.of("sku-hot#0", 1, "sku-hot#1", 1, "sku-hot#2", 0, "sku-hot#3", 2, "sku-hot", 0));
+
+        assertThatThrownBy(planner::nextAttempt)
+            .isInstanceOfSatisfying(InsufficientStockException.class, e ->
+                assertThat(e.getItems()).isEqualTo(List.of(new InsufficientStockItem("sku-hot", 5, 4))));
+    }
+
+    @Test
+    void throttledShardIsSkippedUntilNothingElseIsLeft() {
+        ReservationPlanner planner = planner(Map.of("sku-hot", 1));
+        String throttled = planner.nextAttempt().keySet().iterator().next();
+
+        assertThat(planner.recordThrottled(List.of(throttled))).isTrue();
+        for (int attempt = 0; attempt < 4; attempt++) {
+            String itemKey = planner.nextAttempt().keySet().iterator().next();
+            assertThat(itemKey).isNotEqualTo(throttled);
+            planner.recordStock(Map.of(itemKey, 0));
+        }
+
+        assertThat(planner.nextAttempt()).isEqualTo(Map.of(throttled, 1));
+    }
+
+    @Test
+    void throttledUnshardedItemCannotBeRoutedAround() {
+        ReservationPlanner planner = planner(Map.of("sku-a", 1, "sku-hot", 1));
+
+        assertThat(planner.recordThrottled(List.of("sku-a"))).isFalse();
+    }
+
+    private ReservationPlanner planner(Map<String, Integer> requested) {
+        return new ReservationPlanner(new LinkedHashMap<>(requested), shards);
+    }
+}
@@ -0,0 +1,75 @@
+package com.novamart.order.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Parsing and formatting of amounts, checked against the BigDecimal conversion where both accept a value.
+ */
+class MoneyTest {
+
+    @Test
+    void parsesPlainDecimals() {
+        assertThat(Money.parse("19.99").minorUnits()).isEqualTo(1999L);
+        assertThat(Money.parse("5").minorUnits()).isEqualTo(500L);
+        assertThat(Money.parse("0.5").minorUnits()).isEqualTo(50L);
+        assertThat(Money.parse("007.05").minorUnits()).isEqualTo(705L);
+    }
+
+    @Test
+    void parsesAMissingWholeOrFractionPart() {
+        assertThat(Money.parse(".5").minorUnits()).isEqualTo(50L);
+        assertThat(Money.parse("5.").minorUnits()).isEqualTo(500L);
+    }
+
+    @Test
+    void parsesSigns() {
+        assertThat(Money.parse("-5.25").minorUnits()).isEqualTo(-525L);
+        assertThat(Money.parse("+5.25").minorUnits()).isEqualTo(525L);
+        assertThat(Money.parse("-0").minorUnits()).isEqualTo(0L);
+    }
+
+    @Test
+    void acceptsTrailingZerosBeyondTheCurrencyScale() {
+        assertThat(Money.parse("19.990").minorUnits()).isEqualTo(1999L);
+        assertThat(Money.parse("5.000").minorUnits()).isEqualTo(500L);
+        assertThat(Money.parse("0.1000000").minorUnits()).isEqualTo(10L);
+        for (String text : new String[] {"19.990", "5.000", "-0.500", ".50"}) {
+            assertThat(Money.parse(text)).isEqualTo(Money.of(new BigDecimal(text)));
+        }
+    }
+
+    @Test
+    void rejectsFractionsOfACent() {
+        assertThatThrownBy(() -> Money.parse("19.999")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.parse("0.0001")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.001"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsWhatIsNotAPlainDecimal() {
+        for (String text : new String[] {"", "-", "+", ".", "-.", "1.2.3", "1e3", "1,00", " 1", "--1", "abc"}) {
+            assertThatThrownBy(() -> Money.parse(text)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void overflowThrowsArithmeticException() {
+        assertThat(Money.parse("92233720368547758.07").minorUnits()).isEqualTo(Long.MAX_VALUE);
+        assertThatThrownBy(() -> Money.parse("92233720368547758.08")).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.parse("92233720368547759")).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.parse("99999999999999999999.00")).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void formatsWithTheCurrencyScale() {
+        assertThat(Money.ofMinor(1999).toString()).isEqualTo("19.99");
+        assertThat(Money.ofMinor(5).toString()).isEqualTo("0.05");
+        assertThat(Money.ofMinor(-50).toString()).isEqualTo("-0.50");
+        assertThat(Money.parse(Money.ofMinor(-123456).toString()).minorUnits()).isEqualTo(-123456L);
+    }
+}
@@ -0,0 +1,60 @@
+package com.novamart.order.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import com.novamart.order.domain.Order;
+import com.novamart.order.domain.OrderItem;
+import com.novamart.order.money.Money;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class OrderRepositoryBatchInsertTest {
+
+    private static final int ITEM_COUNT = 20;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void twentyItemOrderIsInsertedWithBatchedStatements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Order order = new Order();
+        order.setCustomerId("cust-batch");
+        order.setTotalAmount(Money.ofMinor(ITEM_COUNT * 100L));
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            OrderItem item = new OrderItem();
+            item.setProductId((long) i + 1);
+            item.setProductSku("sku-" + i);
+            item.setQuantity(1);
+            item.setUnitPrice(Money.ofMinor(100));
+            order.addItem(item);
+        }
+
+        orderRepository.save(order);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(ITEM_COUNT + 1);
+        // One INSERT for the order, one batched INSERT for all items, and at most two sequence calls per
+        // table to prime the pooled optimizers. With IDENTITY ids this was one statement per row.
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(6);
+    }
+}
@@ -0,0 +1,89 @@
+param(
+  [int[]] $RpsList = @(200, 400, 800, 1600),
+  [int] $DurationSeconds = 60,
+  [int] $P95ms = 1000,
+  [string] $MemLimit = "768m",
+  [int] $DbPoolMaxSize = 20,
+  [string[]] $Modes = @("platform", "virtual"),
+  [switch] $SeedInventory = $true,
+  [string] $Network = "novamart",
+  [string] $K6Image = "grafana/k6:latest"
+)
+
+# Runs the same constant-RPS steps against one order-service replica per thread mode, on the same JDK 21
+# image and the same memory limit, and records docker stats for each mode next to the k6 output.
+
+$ErrorActionPreference = "Stop"
+
+function Wait-HttpOk {
+  param(
+    [string] $Url,
+    [int] $TimeoutSeconds = 60
+  )
+
+  $deadline = (Get-Date).AddSeconds($TimeoutSeconds)
+  while ((Get-Date) -lt $deadline) {
+    try {
+      $resp = Invoke-WebRequest -Uri $Url -UseBasicParsing -TimeoutSec 5
+      if ($resp.StatusCode -ge 200 -and $resp.StatusCode -lt 300) {
+        return
+      }
+    } catch {
+      Start-Sleep -Seconds 2
+    }
+  }
+
+  throw "Service did not become ready within ${TimeoutSeconds}s: $Url"
+}
+
+$composeArgs = @("-f", "docker-compose.local.yml", "-f", "docker-compose.order-virtual-threads.yml")
+$repoRoot = (Get-Location).Path
+$Duration = "${DurationSeconds}s"
+# Leave some slack per step for k6 start-up and graceful stop.
+$statsSeconds = $RpsList.Count * ($DurationSeconds + 30)
+
+$env:ORDER_MEM_LIMIT = $MemLimit
+$env:DB_POOL_MAX_SIZE = "$DbPoolMaxSize"
+
+foreach ($mode in $Modes) {
+  $env:ORDER_VIRTUAL_THREADS_ENABLED = if ($mode -eq "virtual") { "true" } else { "false" }
+
+  Write-Host ""
+  Write-Host "=== order-service $mode threads (mem_limit=$MemLimit, db pool=$DbPoolMaxSize) ===" -ForegroundColor Cyan
+  docker compose @composeArgs up -d --build --force-recreate --scale order-service=1 `
+    localstack inventory-dynamodb order-postgres order-service order-lb | Out-Host
+
+  Wait-HttpOk -Url "http://localhost:8081/actuator/health" -TimeoutSeconds 120
+
+  if ($SeedInventory) {
+    .\tools\loadtests\seed-order-inventory.ps1 | Out-Host
+  }
+
+  $statsPath = Join-Path $repoRoot "tools\loadtests\docker-stats-order-$mode.csv"
+  $stats = Start-Job -ScriptBlock {
+    param($Root, $Seconds, $OutputPath)
+    Set-Location $Root
+    & .\tools\loadtests\collect-docker-stats.ps1 -Seconds $Seconds -OutputPath $OutputPath
+  } -ArgumentList $repoRoot, $statsSeconds, $statsPath
+
+  foreach ($rps in $RpsList) {
+    Write-Host ""
+    Write-Host "--- $mode threads: constant RPS $rps for $Duration (p95<$P95ms ms) ---" -ForegroundColor Cyan
+    .\tools\loadtests\run-k6-in-docker.ps1 `
+      -Network $Network `
+      -Image $K6Image `
+      -BaseUrl "http://order-lb:8081" `
+      -Mode constant `
+      -Script "order-create.k6.js" `
+      -Rps $rps `
+      -Duration $Duration `
+      -P95ms $P95ms | Out-Host
+  }
+
+  Stop-Job $stats | Out-Null
+  Remove-Job $stats -Force | Out-Null
+  .\tools\loadtests\summarize-docker-stats.ps1 -InputPath $statsPath | Out-Host
+
+  Write-Host "Pinned virtual threads reported by this run (virtual mode only):" -ForegroundColor Cyan
+  docker compose @composeArgs logs order-service | Select-String -Pattern "pinned" | Select-Object -First 20 | Out-Host
+}